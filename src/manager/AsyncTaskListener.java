@@ -0,0 +1,86 @@
+package manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Доставка событий подписчику в отдельном потоке пачками; при переполнении очереди событие отбрасывается.
+public class AsyncTaskListener implements TaskListener, AutoCloseable {
+    private final TaskListener delegate;
+    private final BlockingQueue<TaskEvent> queue;
+    private final int batchSize;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile RuntimeException failure;
+    private final Thread worker;
+    private volatile boolean closed;
+
+    public AsyncTaskListener(TaskListener delegate, int capacity, int batchSize) {
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Capacity and batch size must be positive: %d, %d"
+                    .formatted(capacity, batchSize));
+        }
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        worker = new Thread(this::deliver, "task-events");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void onEvent(TaskEvent event) {
+        if (closed || !queue.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    private void deliver() {
+        List<TaskEvent> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                TaskEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                delegate.onEvents(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // ошибка подписчика не должна останавливать доставку следующих событий
+                if (failed.getAndIncrement() == 0) {
+                    failure = e;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // если ожидание прервано, close возвращается сразу, а поток дописывает очередь сам
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Listener failed on %d event batches".formatted(failed.get()), failure);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import utils.IntSet;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+// Общее для всех хранилищ: история, события, пакеты и страницы.
+public abstract class BaseTaskManager implements TaskManager {
+    private static final int CHANGE_LOG_CAPACITY = 10_000;
+
+    protected final HistoryManager historyManager = Managers.getDefaultHistory();
+    // эпики, затронутые текущим пакетом; null вне applyBatch
+    private IntSet batchEpics;
+    private final List<TaskListener> listeners = new CopyOnWriteArrayList<>();
+    private long eventVersion;
+    private final ChangeLog changeLog = new ChangeLog(CHANGE_LOG_CAPACITY);
+    private final AtomicLong listenerFailures = new AtomicLong();
+    private volatile RuntimeException listenerFailure;
+
+    protected abstract boolean exists(TaskType type, int id);
+
+    // хранимая задача без записи в историю; null, если такой нет
+    protected abstract Task stored(TaskType type, int id);
+
+    protected abstract void forEachSubtaskOf(int epicId, IntConsumer action);
+
+    // пересекается ли интервал задачи с расписанием, не считая записей id и ignored
+    protected abstract boolean overlapsSchedule(Task task, int id, IntSet ignored);
+
+    // пересчёт сводки в конце пакета; эпик к этому моменту мог быть удалён
+    protected abstract void applyBatchRollup(int epicId);
+
+    protected Task scheduled(Task task) {
+        return task;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public void addListener(TaskListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    @Override
+    public void removeListener(TaskListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public ChangeLog.Changes getChangesSince(String token) {
+        return changeLog.since(token);
+    }
+
+    // событие хранит копию: эпик хранилище меняет на месте
+    protected void publish(TaskEvent.Kind kind, TaskType type, int id, Task task) {
+        TaskEvent event = new TaskEvent(kind, ++eventVersion, type, id, task == null ? null : task.copy());
+        changeLog.append(event);
+        for (TaskListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                // изменение уже сделано: ошибка подписчика не должна ломать операцию или пакет
+                if (listenerFailures.getAndIncrement() == 0) {
+                    listenerFailure = e;
+                }
+            }
+        }
+    }
+
+    // число событий, на которых синхронный подписчик бросил исключение
+    public long getListenerFailureCount() {
+        return listenerFailures.get();
+    }
+
+    public RuntimeException getListenerFailure() {
+        return listenerFailure;
+    }
+
+    @Override
+    public void validateNoOverlap(Task task) {
+        if (overlapsSchedule(task, task.getId(), null)) {
+            throw overlapOf(task);
+        }
+    }
+
+    // внутри пакета пересечения уже проверены целиком в validateBatch
+    protected void checkNoOverlap(Task task, int id) {
+        if (batchEpics == null && overlapsSchedule(task, id, null)) {
+            throw overlapOf(task);
+        }
+    }
+
+    protected boolean isInBatch() {
+        return batchEpics != null;
+    }
+
+    protected boolean deferRollup(int epicId) {
+        if (batchEpics == null) return false;
+        batchEpics.add(epicId);
+        return true;
+    }
+
+    // пакет сначала проверяется целиком, поэтому применение не может упасть посередине
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        if (batch == null || batch.isEmpty()) return;
+        validateBatch(batch);
+        batchEpics = new IntSet();
+        try {
+            batch.getOperations().forEach(this::applyOperation);
+        } finally {
+            IntSet affectedEpics = batchEpics;
+            batchEpics = null;
+            affectedEpics.forEach(this::applyBatchRollup);
+        }
+    }
+
+    private void applyOperation(TaskBatch.Operation operation) {
+        if (operation.action() == TaskBatch.Action.RESCHEDULE) {
+            Task task = stored(operation.type(), operation.id()).copy();
+            task.setStartTime(operation.task().getStartTime());
+            task.setDuration(operation.task().getDuration());
+            if (task instanceof Subtask subtask) {
+                updateSubtaskById(subtask);
+            } else {
+                updateTaskById(task);
+            }
+            return;
+        }
+        switch (operation.type()) {
+            case TASK -> {
+                switch (operation.action()) {
+                    case CREATE -> createTask(operation.task());
+                    case UPDATE -> updateTaskById(operation.task());
+                    case DELETE -> deleteTaskById(operation.id());
+                    default -> throw new IllegalArgumentException("Unsupported operation " + operation.action());
+                }
+            }
+            case EPIC -> {
+                switch (operation.action()) {
+                    case CREATE -> createEpic((Epic) operation.task());
+                    case UPDATE -> updateEpicById((Epic) operation.task());
+                    case DELETE -> deleteEpicById(operation.id());
+                    default -> throw new IllegalArgumentException("Unsupported operation " + operation.action());
+                }
+            }
+            case SUBTASK -> {
+                switch (operation.action()) {
+                    case CREATE -> createSubtask(operation);
+                    case UPDATE -> updateSubtaskById((Subtask) operation.task());
+                    case DELETE -> deleteSubtaskById(operation.id());
+                    default -> throw new IllegalArgumentException("Unsupported operation " + operation.action());
+                }
+            }
+        }
+    }
+
+    private void createSubtask(TaskBatch.Operation operation) {
+        Subtask subtask = (Subtask) operation.task();
+        if (operation.epic() == null) {
+            createSubtask(subtask);
+            return;
+        }
+        Subtask created = new Subtask(subtask.getTitle(), subtask.getDescription(), subtask.getStatus(),
+                operation.epic().getId(), subtask.getStartTime(), subtask.getDuration());
+        createSubtask(created);
+        subtask.setId(created.getId());
+    }
+
+    // временные id новых задач отрицательные, чтобы не совпасть с настоящими
+    private void validateBatch(TaskBatch batch) {
+        ScheduleIndex pending = new ScheduleIndex();
+        IntSet replaced = new IntSet();
+        IntSet deleted = new IntSet();
+        int provisionalId = 0;
+        Set<Task> createdEpics = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (TaskBatch.Operation operation : batch.getOperations()) {
+            if (operation.type() == TaskType.EPIC) {
+                if (operation.action() == TaskBatch.Action.CREATE) {
+                    createdEpics.add(operation.task());
+                } else if (operation.action() == TaskBatch.Action.DELETE) {
+                    deleted.add(operation.id());
+                    if (exists(TaskType.EPIC, operation.id())) {
+                        forEachSubtaskOf(operation.id(), subtaskId -> {
+                            replaced.add(subtaskId);
+                            deleted.add(subtaskId);
+                            pending.remove(subtaskId);
+                        });
+                    }
+                }
+                continue;
+            }
+            switch (operation.action()) {
+                case CREATE -> {
+                    if (operation.epic() != null && !createdEpics.contains(operation.epic())) {
+                        throw new IllegalArgumentException("model.Epic of the subtask is not created earlier in the batch");
+                    }
+                    if (operation.epic() == null) {
+                        requireBatchEpic(operation, deleted);
+                    }
+                    int id = --provisionalId;
+                    checkBatchOverlap(operation.task(), id, pending, replaced);
+                    pending.add(scheduled(operation.task()), id);
+                }
+                case UPDATE -> {
+                    int id = operation.id();
+                    if (!exists(operation.type(), id) || deleted.contains(id)) continue;
+                    requireBatchEpic(operation, deleted);
+                    replaced.add(id);
+                    checkBatchOverlap(operation.task(), id, pending, replaced);
+                    pending.add(scheduled(operation.task()), id);
+                }
+                case DELETE -> {
+                    replaced.add(operation.id());
+                    deleted.add(operation.id());
+                    pending.remove(operation.id());
+                }
+                case RESCHEDULE -> {
+                    int id = operation.id();
+                    Task current = stored(operation.type(), id);
+                    if (current == null || current.getStartTime() != null || replaced.contains(id)) {
+                        throw new IllegalStateException("model.Task %d is no longer unscheduled".formatted(id));
+                    }
+                    replaced.add(id);
+                    checkBatchOverlap(operation.task(), id, pending, replaced);
+                    pending.add(scheduled(operation.task()), id);
+                }
+            }
+        }
+    }
+
+    private void requireBatchEpic(TaskBatch.Operation operation, IntSet deleted) {
+        if (!(operation.task() instanceof Subtask subtask)) return;
+        if (!exists(TaskType.EPIC, subtask.getEpicId()) || deleted.contains(subtask.getEpicId())) {
+            throw new IllegalArgumentException("model.Epic %d not found".formatted(subtask.getEpicId()));
+        }
+    }
+
+    private void checkBatchOverlap(Task task, int id, ScheduleIndex pending, IntSet replaced) {
+        if (pending.overlaps(scheduled(task), id, null) || overlapsSchedule(task, id, replaced)) {
+            throw overlapOf(task);
+        }
+    }
+
+    private static IllegalStateException overlapOf(Task task) {
+        return new IllegalStateException("model.Task %d overlaps with existing tasks".formatted(task.getId()));
+    }
+
+    // страница строится по limit + 1 записям, чтобы понять, есть ли следующая
+    protected static <T extends Task> TaskPage<T> toPage(List<T> items, int limit, Function<T, String> cursorOf) {
+        if (items.size() <= limit) {
+            return new TaskPage<>(items, null);
+        }
+        items.remove(limit);
+        return new TaskPage<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+
+    protected static boolean hasStatus(Task task, TaskStatus status) {
+        return status == null || task.getStatus() == status;
+    }
+
+    protected static void requirePositive(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+    }
+}
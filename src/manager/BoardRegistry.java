@@ -0,0 +1,196 @@
+package manager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// Независимые доски со своими файлами <directory>/<boardId>.csv; простаивающие и лишние доски выгружаются.
+// Выгружается только доска без активных запросов — иначе на один файл пришлось бы два менеджера.
+public class BoardRegistry implements AutoCloseable {
+    private static final Pattern BOARD_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final Path directory;
+    private final long idleTimeoutNanos;
+    private final int maxLoaded;
+    private final LinkedHashMap<String, Board> boards = new LinkedHashMap<>(16, 0.75f, true);
+    // доски, выгруженные из карты, но ещё не закрытые; повторная загрузка ждёт закрытия
+    private final Map<String, CompletableFuture<Void>> closing = new HashMap<>();
+    private final ScheduledExecutorService evictor;
+
+    private static class Board {
+        private final CompletableFuture<FileBackedTaskManager> file = new CompletableFuture<>();
+        private volatile TaskManager manager;
+        private long lastAccess;
+        private int users;
+    }
+
+    public static BoardRegistry open(Path directory, Duration idleTimeout, int maxLoaded) {
+        BoardRegistry registry = new BoardRegistry(directory, idleTimeout, maxLoaded);
+        long period = Math.max(1, idleTimeout.toMillis() / 2);
+        registry.evictor.scheduleWithFixedDelay(registry::evictIdle, period, period, TimeUnit.MILLISECONDS);
+        return registry;
+    }
+
+    private BoardRegistry(Path directory, Duration idleTimeout, int maxLoaded) {
+        if (maxLoaded <= 0) {
+            throw new IllegalArgumentException("Max loaded boards must be positive: " + maxLoaded);
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось создать каталог досок " + directory);
+        }
+        this.directory = directory;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.maxLoaded = maxLoaded;
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "board-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // менеджер доски; после использования обязательно вызвать release с тем же id
+    public TaskManager acquire(String boardId) {
+        if (boardId == null || !BOARD_ID.matcher(boardId).matches()) {
+            throw new IllegalArgumentException("Invalid board id: " + boardId);
+        }
+        Board board;
+        CompletableFuture<Void> previous = null;
+        synchronized (this) {
+            board = boards.get(boardId);
+            if (board == null) {
+                board = new Board();
+                boards.put(boardId, board);
+                previous = closing.getOrDefault(boardId, CompletableFuture.completedFuture(null));
+            }
+            board.users++;
+            board.lastAccess = System.nanoTime();
+        }
+        if (previous != null) {
+            load(boardId, board, previous);
+        }
+        try {
+            board.file.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return board.manager;
+    }
+
+    public synchronized void release(String boardId) {
+        Board board = boards.get(boardId);
+        if (board != null && board.users > 0) {
+            board.users--;
+            board.lastAccess = System.nanoTime();
+        }
+    }
+
+    public synchronized int loadedCount() {
+        return boards.size();
+    }
+
+    public int evictIdle() {
+        Map<String, Board> evicted = new HashMap<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            for (Iterator<Map.Entry<String, Board>> it = boards.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, Board> entry = it.next();
+                Board board = entry.getValue();
+                if (board.users == 0 && now - board.lastAccess >= idleTimeoutNanos) {
+                    it.remove();
+                    evict(entry.getKey(), evicted, board);
+                }
+            }
+        }
+        closeAll(evicted);
+        return evicted.size();
+    }
+
+    private void load(String boardId, Board board, CompletableFuture<Void> previous) {
+        try {
+            previous.join();
+            FileBackedTaskManager file = load(directory.resolve(boardId + ".csv"));
+            board.manager = Managers.getConcurrent(file);
+            board.file.complete(file);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                boards.remove(boardId, board);
+            }
+            board.file.completeExceptionally(e);
+            throw e;
+        }
+        evictOverflow();
+    }
+
+    private void evictOverflow() {
+        Map<String, Board> evicted = new HashMap<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Board>> it = boards.entrySet().iterator();
+            while (boards.size() > maxLoaded && it.hasNext()) {
+                Map.Entry<String, Board> entry = it.next();
+                if (entry.getValue().users == 0) {
+                    it.remove();
+                    evict(entry.getKey(), evicted, entry.getValue());
+                }
+            }
+        }
+        closeAll(evicted);
+    }
+
+    private void evict(String boardId, Map<String, Board> evicted, Board board) {
+        evicted.put(boardId, board);
+        closing.put(boardId, new CompletableFuture<>());
+    }
+
+    private void closeAll(Map<String, Board> evicted) {
+        RuntimeException failure = null;
+        for (Map.Entry<String, Board> entry : evicted.entrySet()) {
+            try {
+                FileBackedTaskManager file = entry.getValue().file.exceptionally(e -> null).join();
+                if (file != null) {
+                    file.close();
+                }
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            } finally {
+                CompletableFuture<Void> closed;
+                synchronized (this) {
+                    closed = closing.remove(entry.getKey());
+                }
+                closed.complete(null);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static FileBackedTaskManager load(Path file) {
+        return Files.exists(file)
+                ? FileBackedTaskManager.loadFromFile(file)
+                : new FileBackedTaskManager(file);
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        Map<String, Board> evicted = new HashMap<>();
+        synchronized (this) {
+            boards.forEach((boardId, board) -> evict(boardId, evicted, board));
+            boards.clear();
+        }
+        closeAll(evicted);
+    }
+}
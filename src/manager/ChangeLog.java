@@ -0,0 +1,77 @@
+package manager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Последние capacity событий в кольцевом буфере. Токен "<epoch>:<версия>" содержит случайный epoch журнала,
+// поэтому токен от прошлого запуска требует пересинхронизации, а не возвращает чужие изменения.
+public class ChangeLog {
+    private static final char TOKEN_SEPARATOR = ':';
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final TaskEvent[] events;
+    private long lastVersion;
+    private int size;
+
+    // при resyncRequired клиенту нужно перечитать списки целиком
+    public record Changes(String token, long version, boolean resyncRequired, List<TaskEvent> changes) {
+    }
+
+    public ChangeLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Change log capacity must be positive: " + capacity);
+        }
+        events = new TaskEvent[capacity];
+    }
+
+    public static String token(String epoch, long version) {
+        return epoch + TOKEN_SEPARATOR + version;
+    }
+
+    public static String epochOf(String token) {
+        return token.substring(0, token.lastIndexOf(TOKEN_SEPARATOR));
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public void append(TaskEvent event) {
+        if (event.version() != lastVersion + 1) {
+            // разрыв нумерации — старые записи больше не продолжают новую последовательность
+            size = 0;
+        }
+        events[(int) (event.version() % events.length)] = event;
+        lastVersion = event.version();
+        size = Math.min(size + 1, events.length);
+    }
+
+    public Changes since(String token) {
+        int separator = token == null ? -1 : token.lastIndexOf(TOKEN_SEPARATOR);
+        if (separator < 0 || !token.substring(0, separator).equals(epoch)) {
+            return resync();
+        }
+        return since(Long.parseLong(token.substring(separator + 1)));
+    }
+
+    // по каждой задаче остаётся только последнее событие
+    public Changes since(long version) {
+        if (version > lastVersion || version < lastVersion - size) {
+            return resync();
+        }
+        Map<Long, TaskEvent> latest = new LinkedHashMap<>();
+        for (long v = version + 1; v <= lastVersion; v++) {
+            TaskEvent event = events[(int) (v % events.length)];
+            latest.remove(event.taskKey());
+            latest.put(event.taskKey(), event);
+        }
+        return new Changes(token(epoch, lastVersion), lastVersion, false, new ArrayList<>(latest.values()));
+    }
+
+    private Changes resync() {
+        return new Changes(token(epoch, lastVersion), lastVersion, true, List.of());
+    }
+}
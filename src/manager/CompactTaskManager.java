@@ -0,0 +1,793 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import utils.IntObjectMap;
+import utils.IntSet;
+import utils.SortedLongSet;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+// Задачи лежат столбцами по id; объекты model.Task создаются только в ответах, истории и событиях.
+// Время хранится в целых минутах: секунды отбрасываются.
+public class CompactTaskManager extends BaseTaskManager {
+    private static final byte NONE = 0;
+    private static final byte TASK = 1;
+    private static final byte EPIC = 2;
+    private static final byte SUBTASK = 3;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int NO_DURATION = -1;
+    private static final int NO_TEXT = -1;
+    private static final int PRINT_PAGE_SIZE = 1000;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final TaskType[] TYPES = TaskType.values();
+
+    private int taskIdCounter = 0;
+    private byte[] types = new byte[16];
+    private byte[] statuses = new byte[16];
+    private long[] starts = new long[16];
+    private int[] durations = new int[16];
+    private int[] epicIds = new int[16];
+    // у эпика — первая подзадача, у подзадачи — следующая подзадача того же эпика
+    private int[] links = new int[16];
+    private int[] textOffsets = new int[16];
+    private int[] titleLengths = new int[16];
+    private int[] descriptionLengths = new int[16];
+    private char[] pool = new char[256];
+    private int poolEnd;
+    private int poolGarbage;
+    // (минута начала << 32) | id — порядок как у ScheduleIndex
+    private final SortedLongSet schedule = new SortedLongSet();
+    // те же ключи без задач нулевой длины, как spans в ScheduleIndex
+    private final SortedLongSet spans = new SortedLongSet();
+    private final int[][] statusCounts = new int[TYPES.length][STATUSES.length];
+    private final IntObjectMap<EpicTotals> epicTotals = new IntObjectMap<>();
+
+    // границы времени эпика пересчитываются обходом, только если ушла подзадача, на которой они держались
+    private static class EpicTotals {
+        private final int[] statusCounts = new int[STATUSES.length];
+        private int size;
+        private long minStart = Long.MAX_VALUE;
+        private long maxEnd = Long.MIN_VALUE;
+        private boolean stale;
+    }
+
+    @Override
+    public List<Task> getListOfTasks() {
+        return materializeAll(TASK);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        IntSet deleted = deleteRows(TASK);
+        deleted.forEach(id -> publish(TaskEvent.Kind.TASK_DELETED, TaskType.TASK, id));
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        if (typeOf(id) != TASK) return null;
+        Task task = materialize(id);
+        historyManager.add(task);
+        return task;
+    }
+
+    @Override
+    public void createTask(Task task) {
+        if (task == null) return;
+        checkNoOverlap(task, 0);
+        int id = newRow(TASK);
+        task.setId(id);
+        store(id, task);
+        index(id);
+        publish(TaskEvent.Kind.TASK_CREATED, TaskType.TASK, id);
+    }
+
+    @Override
+    public void updateTaskById(Task task) {
+        if (task == null || typeOf(task.getId()) != TASK) return;
+        int id = task.getId();
+        checkNoOverlap(task, id);
+        unindex(id);
+        store(id, task);
+        index(id);
+        publish(TaskEvent.Kind.TASK_UPDATED, TaskType.TASK, id);
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        historyManager.remove(id);
+        if (typeOf(id) != TASK) return;
+        deleteRow(id);
+        publish(TaskEvent.Kind.TASK_DELETED, TaskType.TASK, id);
+    }
+
+    @Override
+    public List<Epic> getListOfEpics() {
+        return materializeAll(EPIC);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksOfEpic(int id) {
+        if (typeOf(id) != EPIC) return null;
+        getEpicById(id);
+        int[] subtaskIds = subtaskIdsOf(id);
+        List<Subtask> subtasksOfEpic = new ArrayList<>(subtaskIds.length);
+        for (int subtaskId : subtaskIds) {
+            subtasksOfEpic.add((Subtask) materialize(subtaskId));
+        }
+        return subtasksOfEpic;
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        IntSet deletedSubtasks = deleteRows(SUBTASK);
+        IntSet deletedEpics = deleteRows(EPIC);
+        epicTotals.clear();
+        deletedSubtasks.forEach(id -> publish(TaskEvent.Kind.TASK_DELETED, TaskType.SUBTASK, id));
+        deletedEpics.forEach(id -> publish(TaskEvent.Kind.TASK_DELETED, TaskType.EPIC, id));
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        if (typeOf(id) != EPIC) return null;
+        Epic epic = (Epic) materialize(id);
+        historyManager.add(epic);
+        return epic;
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        if (epic == null) return;
+        int id = newRow(EPIC);
+        epic.setId(id);
+        storeText(id, epic.getTitle(), epic.getDescription());
+        statuses[id] = (byte) statusOf(epic).ordinal();
+        starts[id] = NO_TIME;
+        durations[id] = NO_DURATION;
+        links[id] = 0;
+        epicTotals.put(id, new EpicTotals());
+        index(id);
+        publish(TaskEvent.Kind.TASK_CREATED, TaskType.EPIC, id);
+    }
+
+    @Override
+    public void updateEpicById(Epic newEpic) {
+        if (newEpic == null || typeOf(newEpic.getId()) != EPIC) return;
+        int id = newEpic.getId();
+        storeText(id, newEpic.getTitle(), newEpic.getDescription());
+        publish(TaskEvent.Kind.TASK_UPDATED, TaskType.EPIC, id);
+        applyRollup(id);
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        historyManager.remove(id);
+        if (typeOf(id) != EPIC) return;
+        for (int subtaskId : subtaskIdsOf(id)) {
+            historyManager.remove(subtaskId);
+            deleteRow(subtaskId);
+            publish(TaskEvent.Kind.TASK_DELETED, TaskType.SUBTASK, subtaskId);
+        }
+        deleteRow(id);
+        epicTotals.remove(id);
+        publish(TaskEvent.Kind.TASK_DELETED, TaskType.EPIC, id);
+    }
+
+    @Override
+    public List<Subtask> getListOfSubtasks() {
+        return materializeAll(SUBTASK);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        IntSet deleted = deleteRows(SUBTASK);
+        deleted.forEach(id -> publish(TaskEvent.Kind.TASK_DELETED, TaskType.SUBTASK, id));
+        for (int id = 1; id <= taskIdCounter; id++) {
+            if (types[id] != EPIC) continue;
+            links[id] = 0;
+            epicTotals.put(id, new EpicTotals());
+            applyRollup(id);
+        }
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        if (typeOf(id) != SUBTASK) return null;
+        Subtask subtask = (Subtask) materialize(id);
+        historyManager.add(subtask);
+        return subtask;
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask) {
+        if (subtask == null) return;
+        int epicId = subtask.getEpicId();
+        requireEpic(epicId);
+        checkNoOverlap(subtask, 0);
+        int id = newRow(SUBTASK);
+        subtask.setId(id);
+        store(id, subtask);
+        epicIds[id] = epicId;
+        link(epicId, id);
+        index(id);
+        publish(TaskEvent.Kind.TASK_CREATED, TaskType.SUBTASK, id);
+        addToTotals(epicId, id);
+        applyRollup(epicId);
+    }
+
+    @Override
+    public void updateSubtaskById(Subtask subtask) {
+        if (subtask == null || typeOf(subtask.getId()) != SUBTASK) return;
+        int id = subtask.getId();
+        int epicId = subtask.getEpicId();
+        requireEpic(epicId);
+        checkNoOverlap(subtask, id);
+        int oldEpicId = epicIds[id];
+        removeFromTotals(oldEpicId, id);
+        unindex(id);
+        store(id, subtask);
+        if (oldEpicId != epicId) {
+            unlink(oldEpicId, id);
+            epicIds[id] = epicId;
+            link(epicId, id);
+        }
+        index(id);
+        publish(TaskEvent.Kind.TASK_UPDATED, TaskType.SUBTASK, id);
+        if (oldEpicId != epicId) {
+            applyRollup(oldEpicId);
+        }
+        addToTotals(epicId, id);
+        applyRollup(epicId);
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        historyManager.remove(id);
+        if (typeOf(id) != SUBTASK) return;
+        int epicId = epicIds[id];
+        removeFromTotals(epicId, id);
+        unlink(epicId, id);
+        deleteRow(id);
+        publish(TaskEvent.Kind.TASK_DELETED, TaskType.SUBTASK, id);
+        applyRollup(epicId);
+    }
+
+    @Override
+    public void printAllTasks() {
+        printAll(TASK);
+        printAll(EPIC);
+        printAll(SUBTASK);
+    }
+
+    private void printAll(byte type) {
+        System.out.print("{");
+        String separator = "";
+        String cursor = null;
+        do {
+            TaskPage<Task> page = pageById(type, PRINT_PAGE_SIZE, cursor, null);
+            for (Task task : page.items()) {
+                System.out.print(separator + task.getId() + "=" + task);
+                separator = ", ";
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        System.out.println("}");
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        List<Task> sorted = new ArrayList<>(schedule.size());
+        schedule.forEach(key -> sorted.add(materialize(idOf(key))));
+        return sorted;
+    }
+
+    @Override
+    public List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("Invalid time window: %s - %s".formatted(from, to));
+        }
+        long fromMinute = toMinute(from);
+        long toMinute = ceilMinute(to);
+        List<Task> window = new ArrayList<>();
+        long before = spans.lower(key(fromMinute, 0), NO_TIME);
+        if (before != NO_TIME && endOf(idOf(before)) > fromMinute) {
+            window.add(materialize(idOf(before)));
+        }
+        schedule.forEachFrom(key(fromMinute, 0), key -> {
+            if (startOf(key) >= toMinute) return false;
+            window.add(materialize(idOf(key)));
+            return true;
+        });
+        return window;
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        if (after == null || duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Invalid slot request: %s, %s".formatted(after, duration));
+        }
+        long minutes = ceilMinutes(duration);
+        long from = ceilMinute(after);
+        long[] candidate = {from};
+        long before = spans.lower(key(from, 0), NO_TIME);
+        if (before != NO_TIME) {
+            candidate[0] = Math.max(candidate[0], endOf(idOf(before)));
+        }
+        schedule.forEachFrom(key(from, 0), key -> {
+            if (startOf(key) >= candidate[0] + minutes) return false;
+            candidate[0] = Math.max(candidate[0], endOf(idOf(key)));
+            return true;
+        });
+        return fromMinute(candidate[0]);
+    }
+
+    @Override
+    public List<TaskConflict> getConflicts() {
+        ScheduleIndex index = new ScheduleIndex();
+        schedule.forEach(key -> {
+            index.add(materialize(idOf(key)));
+            return true;
+        });
+        return index.findConflicts();
+    }
+
+    @Override
+    protected boolean exists(TaskType type, int id) {
+        return typeOf(id) == codeOf(type);
+    }
+
+    @Override
+    protected Task stored(TaskType type, int id) {
+        return exists(type, id) ? materialize(id) : null;
+    }
+
+    @Override
+    protected void forEachSubtaskOf(int epicId, IntConsumer action) {
+        for (int id = links[epicId]; id != 0; id = links[id]) {
+            action.accept(id);
+        }
+    }
+
+    @Override
+    protected void applyBatchRollup(int epicId) {
+        if (typeOf(epicId) == EPIC) {
+            applyRollup(epicId);
+        }
+    }
+
+    @Override
+    protected Task scheduled(Task task) {
+        if (task.getStartTime() == null) return task;
+        return new Task(task.getId(), task.getTitle(), task.getDescription(), task.getStatus(),
+                fromMinute(toMinute(task.getStartTime())), Duration.ofMinutes(durationOf(task)));
+    }
+
+    // как в ScheduleIndex: мешать может только ближайший слева интервал ненулевой длины и начавшиеся внутри
+    @Override
+    protected boolean overlapsSchedule(Task task, int id, IntSet ignored) {
+        if (task.getStartTime() == null) return false;
+        long start = toMinute(task.getStartTime());
+        long end = start + durationOf(task);
+        long probe = key(start, Integer.MAX_VALUE) + 1;
+        long before = spans.lower(probe, NO_TIME);
+        while (before != NO_TIME && isSkipped(idOf(before), id, ignored)) {
+            before = spans.lower(before, NO_TIME);
+        }
+        if (before != NO_TIME && endOf(idOf(before)) > start && startOf(before) < end) return true;
+        boolean[] inside = {false};
+        schedule.forEachFrom(probe, key -> {
+            if (startOf(key) >= end) return false;
+            inside[0] = !isSkipped(idOf(key), id, ignored);
+            return !inside[0];
+        });
+        return inside[0];
+    }
+
+    private static boolean isSkipped(int otherId, int id, IntSet ignored) {
+        return otherId == id || (ignored != null && ignored.contains(otherId));
+    }
+
+    @Override
+    public TaskPage<Task> getTasksPage(int limit, String cursor, TaskStatus status) {
+        return pageById(TASK, limit, cursor, status);
+    }
+
+    @Override
+    public TaskPage<Epic> getEpicsPage(int limit, String cursor, TaskStatus status) {
+        return pageById(EPIC, limit, cursor, status);
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasksPage(int limit, String cursor, TaskStatus status) {
+        return pageById(SUBTASK, limit, cursor, status);
+    }
+
+    @Override
+    public TaskPage<Task> getPrioritizedPage(int limit, String cursor, TaskStatus status) {
+        requirePositive(limit);
+        long from = Long.MIN_VALUE;
+        if (cursor != null) {
+            from = key(toMinute(PageCursor.decodeTime(cursor)), PageCursor.decodeTimeId(cursor)) + 1;
+        }
+        List<Task> items = new ArrayList<>();
+        schedule.forEachFrom(from, key -> {
+            int id = idOf(key);
+            if (hasStatus(id, status)) {
+                items.add(materialize(id));
+            }
+            return items.size() <= limit;
+        });
+        return toPage(items, limit, last -> PageCursor.ofTime(last.getStartTime(), last.getId()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Task> TaskPage<T> pageById(byte type, int limit, String cursor, TaskStatus status) {
+        requirePositive(limit);
+        int afterId = cursor == null ? 0 : Math.max(0, PageCursor.decodeId(cursor));
+        List<T> items = new ArrayList<>();
+        for (int id = afterId + 1; id <= taskIdCounter && items.size() <= limit; id++) {
+            if (types[id] == type && hasStatus(id, status)) {
+                items.add((T) materialize(id));
+            }
+        }
+        return toPage(items, limit, last -> PageCursor.ofId(last.getId()));
+    }
+
+    @Override
+    public int[] getIdsByStatus(TaskType type, TaskStatus status) {
+        byte code = codeOf(type);
+        return collectIds(id -> types[id] == code && statuses[id] == status.ordinal());
+    }
+
+    @Override
+    public int getCountByStatus(TaskType type, TaskStatus status) {
+        return statusCounts[type.ordinal()][status.ordinal()];
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        requirePositive(limit);
+        Set<String> words = SearchIndex.tokenize(query);
+        List<Task> found = new ArrayList<>();
+        if (words.isEmpty()) return found;
+        for (int id = 1; id <= taskIdCounter && found.size() < limit; id++) {
+            if (types[id] == NONE) continue;
+            Set<String> tokens = SearchIndex.tokenize(title(id));
+            tokens.addAll(SearchIndex.tokenize(description(id)));
+            if (tokens.containsAll(words)) {
+                found.add(materialize(id));
+            }
+        }
+        return found;
+    }
+
+    private boolean hasStatus(int id, TaskStatus status) {
+        return status == null || statuses[id] == status.ordinal();
+    }
+
+    private int[] collectIds(IntPredicate filter) {
+        int[] ids = new int[16];
+        int size = 0;
+        for (int id = 1; id <= taskIdCounter; id++) {
+            if (!filter.test(id)) continue;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+        return Arrays.copyOf(ids, size);
+    }
+
+    private void publish(TaskEvent.Kind kind, TaskType type, int id) {
+        publish(kind, type, id, kind == TaskEvent.Kind.TASK_DELETED ? null : materialize(id));
+    }
+
+    private void applyRollup(int epicId) {
+        if (deferRollup(epicId)) return;
+        EpicTotals totals = epicTotals.get(epicId);
+        if (totals.stale) {
+            totals.minStart = Long.MAX_VALUE;
+            totals.maxEnd = Long.MIN_VALUE;
+            for (int id = links[epicId]; id != 0; id = links[id]) {
+                includeTime(totals, id);
+            }
+            totals.stale = false;
+        }
+        TaskStatus status;
+        if (totals.size == 0 || totals.statusCounts[TaskStatus.NEW.ordinal()] == totals.size) {
+            status = TaskStatus.NEW;
+        } else if (totals.statusCounts[TaskStatus.DONE.ordinal()] == totals.size) {
+            status = TaskStatus.DONE;
+        } else {
+            status = TaskStatus.IN_PROGRESS;
+        }
+        unindex(epicId);
+        statuses[epicId] = (byte) status.ordinal();
+        index(epicId);
+        if (totals.minStart != Long.MAX_VALUE && totals.maxEnd != Long.MIN_VALUE) {
+            starts[epicId] = totals.minStart;
+            durations[epicId] = (int) (totals.maxEnd - totals.minStart);
+        } else {
+            starts[epicId] = NO_TIME;
+            durations[epicId] = NO_DURATION;
+        }
+        publish(TaskEvent.Kind.EPIC_ROLLED_UP, TaskType.EPIC, epicId);
+    }
+
+    private void addToTotals(int epicId, int subtaskId) {
+        EpicTotals totals = epicTotals.get(epicId);
+        totals.statusCounts[statuses[subtaskId]]++;
+        totals.size++;
+        if (!totals.stale) {
+            includeTime(totals, subtaskId);
+        }
+    }
+
+    private void removeFromTotals(int epicId, int subtaskId) {
+        EpicTotals totals = epicTotals.get(epicId);
+        totals.statusCounts[statuses[subtaskId]]--;
+        totals.size--;
+        long start = starts[subtaskId];
+        if (start != NO_TIME && (start == totals.minStart
+                || (durations[subtaskId] != NO_DURATION && endOf(subtaskId) == totals.maxEnd))) {
+            totals.stale = true;
+        }
+    }
+
+    private void includeTime(EpicTotals totals, int subtaskId) {
+        long start = starts[subtaskId];
+        if (start == NO_TIME) return;
+        totals.minStart = Math.min(totals.minStart, start);
+        if (durations[subtaskId] != NO_DURATION) {
+            totals.maxEnd = Math.max(totals.maxEnd, endOf(subtaskId));
+        }
+    }
+
+    private void requireEpic(int epicId) {
+        if (typeOf(epicId) != EPIC) {
+            throw new IllegalArgumentException("model.Epic %d not found".formatted(epicId));
+        }
+    }
+
+    private void link(int epicId, int subtaskId) {
+        links[subtaskId] = links[epicId];
+        links[epicId] = subtaskId;
+    }
+
+    private void unlink(int epicId, int subtaskId) {
+        int previous = epicId;
+        while (links[previous] != subtaskId) {
+            previous = links[previous];
+        }
+        links[previous] = links[subtaskId];
+        links[subtaskId] = 0;
+    }
+
+    private int[] subtaskIdsOf(int epicId) {
+        IntSet ids = new IntSet();
+        for (int id = links[epicId]; id != 0; id = links[id]) {
+            ids.add(id);
+        }
+        return ids.toArray();
+    }
+
+    private int newRow(byte type) {
+        int id = ++taskIdCounter;
+        if (id >= types.length) {
+            int capacity = Math.max(id + 1, types.length * 2);
+            types = Arrays.copyOf(types, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+            epicIds = Arrays.copyOf(epicIds, capacity);
+            links = Arrays.copyOf(links, capacity);
+            textOffsets = Arrays.copyOf(textOffsets, capacity);
+            titleLengths = Arrays.copyOf(titleLengths, capacity);
+            descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+        }
+        types[id] = type;
+        titleLengths[id] = NO_TEXT;
+        descriptionLengths[id] = NO_TEXT;
+        return id;
+    }
+
+    private void store(int id, Task task) {
+        storeText(id, task.getTitle(), task.getDescription());
+        statuses[id] = (byte) statusOf(task).ordinal();
+        starts[id] = task.getStartTime() == null ? NO_TIME : toMinute(task.getStartTime());
+        durations[id] = task.getDuration() == null ? NO_DURATION : (int) durationMinutes(task.getDuration());
+    }
+
+    private void index(int id) {
+        statusCounts[types[id] - 1][statuses[id]]++;
+        if (types[id] != EPIC && starts[id] != NO_TIME) {
+            schedule.add(key(starts[id], id));
+            if (durations[id] > 0) {
+                spans.add(key(starts[id], id));
+            }
+        }
+    }
+
+    private void unindex(int id) {
+        statusCounts[types[id] - 1][statuses[id]]--;
+        if (types[id] != EPIC && starts[id] != NO_TIME) {
+            schedule.remove(key(starts[id], id));
+            spans.remove(key(starts[id], id));
+        }
+    }
+
+    private void deleteRow(int id) {
+        unindex(id);
+        poolGarbage += textLength(id);
+        types[id] = NONE;
+        links[id] = 0;
+    }
+
+    private IntSet deleteRows(byte type) {
+        IntSet deleted = new IntSet();
+        for (int id = 1; id <= taskIdCounter; id++) {
+            if (types[id] != type) continue;
+            historyManager.remove(id);
+            deleteRow(id);
+            deleted.add(id);
+        }
+        return deleted;
+    }
+
+    private byte typeOf(int id) {
+        return id > 0 && id <= taskIdCounter ? types[id] : NONE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Task> List<T> materializeAll(byte type) {
+        List<T> rows = new ArrayList<>();
+        for (int id = 1; id <= taskIdCounter; id++) {
+            if (types[id] == type) {
+                rows.add((T) materialize(id));
+            }
+        }
+        return rows;
+    }
+
+    private Task materialize(int id) {
+        TaskStatus status = STATUSES[statuses[id]];
+        LocalDateTime startTime = starts[id] == NO_TIME ? null : fromMinute(starts[id]);
+        Duration duration = durations[id] == NO_DURATION ? null : Duration.ofMinutes(durations[id]);
+        return switch (types[id]) {
+            case TASK -> new Task(id, title(id), description(id), status, startTime, duration);
+            case SUBTASK -> new Subtask(id, title(id), description(id), status, epicIds[id], startTime, duration);
+            case EPIC -> {
+                Epic epic = new Epic(id, title(id), description(id));
+                epic.setStatus(status);
+                epic.setStartTime(startTime);
+                epic.setDuration(duration);
+                epic.setEndTime(startTime == null ? null : startTime.plus(duration));
+                IntSet subtaskIds = new IntSet();
+                for (int subtaskId : subtaskIdsOf(id)) {
+                    subtaskIds.add(subtaskId);
+                }
+                epic.setSubtaskIds(subtaskIds);
+                yield epic;
+            }
+            default -> throw new IllegalStateException("No task with id " + id);
+        };
+    }
+
+    // когда мусора в пуле больше половины, он переписывается только с живыми строками
+    private void storeText(int id, String title, String description) {
+        poolGarbage += textLength(id);
+        int titleLength = title == null ? NO_TEXT : title.length();
+        int descriptionLength = description == null ? NO_TEXT : description.length();
+        int length = Math.max(titleLength, 0) + Math.max(descriptionLength, 0);
+        if (poolGarbage > poolEnd / 2 && poolGarbage > 4096) {
+            compactPool(id);
+        }
+        if (poolEnd + length > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(poolEnd + length, pool.length * 2));
+        }
+        textOffsets[id] = poolEnd;
+        titleLengths[id] = titleLength;
+        descriptionLengths[id] = descriptionLength;
+        if (title != null) {
+            title.getChars(0, titleLength, pool, poolEnd);
+            poolEnd += titleLength;
+        }
+        if (description != null) {
+            description.getChars(0, descriptionLength, pool, poolEnd);
+            poolEnd += descriptionLength;
+        }
+    }
+
+    private void compactPool(int skippedId) {
+        char[] compacted = new char[Math.max(256, (poolEnd - poolGarbage) * 2)];
+        int end = 0;
+        for (int id = 1; id <= taskIdCounter; id++) {
+            if (types[id] == NONE || id == skippedId) continue;
+            int length = textLength(id);
+            System.arraycopy(pool, textOffsets[id], compacted, end, length);
+            textOffsets[id] = end;
+            end += length;
+        }
+        pool = compacted;
+        poolEnd = end;
+        poolGarbage = 0;
+    }
+
+    private int textLength(int id) {
+        if (types[id] == NONE) return 0;
+        return Math.max(titleLengths[id], 0) + Math.max(descriptionLengths[id], 0);
+    }
+
+    private String title(int id) {
+        int length = titleLengths[id];
+        return length == NO_TEXT ? null : new String(pool, textOffsets[id], length);
+    }
+
+    private String description(int id) {
+        int length = descriptionLengths[id];
+        int offset = textOffsets[id] + Math.max(titleLengths[id], 0);
+        return length == NO_TEXT ? null : new String(pool, offset, length);
+    }
+
+    private long endOf(int id) {
+        return starts[id] + Math.max(durations[id], 0);
+    }
+
+    private static TaskStatus statusOf(Task task) {
+        return task.getStatus() == null ? TaskStatus.NEW : task.getStatus();
+    }
+
+    private static long durationOf(Task task) {
+        return task.getDuration() == null ? 0 : durationMinutes(task.getDuration());
+    }
+
+    private static byte codeOf(TaskType type) {
+        return (byte) (type.ordinal() + 1);
+    }
+
+    private static long key(long startMinute, int id) {
+        return (startMinute << 32) | id;
+    }
+
+    private static long startOf(long key) {
+        return key >> 32;
+    }
+
+    private static int idOf(long key) {
+        return (int) key;
+    }
+
+    private static long toMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static long ceilMinute(LocalDateTime time) {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        return time.getNano() == 0 ? -Math.floorDiv(-seconds, 60) : Math.floorDiv(seconds, 60) + 1;
+    }
+
+    private static long durationMinutes(Duration duration) {
+        long minutes = duration.toMinutes();
+        if (minutes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Duration is too long: " + duration);
+        }
+        return minutes;
+    }
+
+    private static long ceilMinutes(Duration duration) {
+        long minutes = duration.toMinutes();
+        return duration.equals(Duration.ofMinutes(minutes)) ? minutes : minutes + 1;
+    }
+
+    private static LocalDateTime fromMinute(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+}
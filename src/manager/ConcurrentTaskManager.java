@@ -0,0 +1,314 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Потокобезопасная обёртка: чтения параллельны, изменения и get*ById — под эксклюзивной блокировкой.
+// Списки публикуются как неизменяемые снимки версии; первое чтение после записи копирует весь список — O(n).
+// Все чтения отдают копии, снятые под блокировкой: эпики делегат меняет на месте.
+public class ConcurrentTaskManager implements TaskManager, AutoCloseable {
+    private final TaskManager delegate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long version;
+    private final SnapshotCache<Task> tasksSnapshot;
+    private final SnapshotCache<Epic> epicsSnapshot;
+    private final SnapshotCache<Subtask> subtasksSnapshot;
+    private final SnapshotCache<Task> prioritizedSnapshot;
+
+    private record Snapshot<T>(long version, List<T> items) {
+    }
+
+    private final class SnapshotCache<T extends Task> {
+        private final Supplier<List<T>> source;
+        private volatile Snapshot<T> snapshot;
+
+        private SnapshotCache(Supplier<List<T>> source) {
+            this.source = source;
+        }
+
+        private List<T> get() {
+            Snapshot<T> current = snapshot;
+            if (isFresh(current)) return current.items();
+            synchronized (this) {
+                current = snapshot;
+                if (!isFresh(current)) {
+                    current = read(() -> new Snapshot<>(version, Collections.unmodifiableList(copiesOf(source.get()))));
+                    snapshot = current;
+                }
+            }
+            return current.items();
+        }
+    }
+
+    public ConcurrentTaskManager(TaskManager delegate) {
+        this.delegate = delegate;
+        this.tasksSnapshot = new SnapshotCache<>(delegate::getListOfTasks);
+        this.epicsSnapshot = new SnapshotCache<>(delegate::getListOfEpics);
+        this.subtasksSnapshot = new SnapshotCache<>(delegate::getListOfSubtasks);
+        this.prioritizedSnapshot = new SnapshotCache<>(delegate::getPrioritizedTasks);
+    }
+
+    @Override
+    public void close() {
+        if (delegate instanceof FileBackedTaskManager file) {
+            write(() -> {
+                file.close();
+                return null;
+            });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Task> T copyOf(T task) {
+        return task == null ? null : (T) task.copy();
+    }
+
+    private static <T extends Task> List<T> copiesOf(List<T> tasks) {
+        if (tasks == null) return null;
+        List<T> copies = new ArrayList<>(tasks.size());
+        for (T task : tasks) {
+            copies.add(copyOf(task));
+        }
+        return copies;
+    }
+
+    private static <T extends Task> TaskPage<T> copiesOf(TaskPage<T> page) {
+        return new TaskPage<>(copiesOf(page.items()), page.nextCursor());
+    }
+
+    private boolean isFresh(Snapshot<?> snapshot) {
+        return snapshot != null && snapshot.version() == version;
+    }
+
+    private <R> R read(Supplier<R> action) {
+        return locked(lock.readLock(), action);
+    }
+
+    private <R> R write(Supplier<R> action) {
+        return locked(lock.writeLock(), action);
+    }
+
+    private void write(Runnable action) {
+        locked(lock.writeLock(), () -> {
+            try {
+                action.run();
+            } finally {
+                version++;
+            }
+            return null;
+        });
+    }
+
+    private static <R> R locked(Lock lock, Supplier<R> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return read(() -> copiesOf(delegate.getHistory()));
+    }
+
+    @Override
+    public List<Task> getListOfTasks() {
+        return tasksSnapshot.get();
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        write(delegate::deleteAllTasks);
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return write(() -> copyOf(delegate.getTaskById(id)));
+    }
+
+    @Override
+    public void createTask(Task task) {
+        write(() -> delegate.createTask(task));
+    }
+
+    @Override
+    public void updateTaskById(Task task) {
+        write(() -> delegate.updateTaskById(task));
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        write(() -> delegate.deleteTaskById(id));
+    }
+
+    @Override
+    public List<Epic> getListOfEpics() {
+        return epicsSnapshot.get();
+    }
+
+    @Override
+    public List<Subtask> getSubtasksOfEpic(int id) {
+        return write(() -> copiesOf(delegate.getSubtasksOfEpic(id)));
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        write(delegate::deleteAllEpics);
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return write(() -> copyOf(delegate.getEpicById(id)));
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        write(() -> delegate.createEpic(epic));
+    }
+
+    @Override
+    public void updateEpicById(Epic newEpic) {
+        write(() -> delegate.updateEpicById(newEpic));
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        write(() -> delegate.deleteEpicById(id));
+    }
+
+    @Override
+    public List<Subtask> getListOfSubtasks() {
+        return subtasksSnapshot.get();
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        write(delegate::deleteAllSubtasks);
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        return write(() -> copyOf(delegate.getSubtaskById(id)));
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask) {
+        write(() -> delegate.createSubtask(subtask));
+    }
+
+    @Override
+    public void updateSubtaskById(Subtask subtask) {
+        write(() -> delegate.updateSubtaskById(subtask));
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        write(() -> delegate.deleteSubtaskById(id));
+    }
+
+    @Override
+    public void addListener(TaskListener listener) {
+        delegate.addListener(listener);
+    }
+
+    @Override
+    public void removeListener(TaskListener listener) {
+        delegate.removeListener(listener);
+    }
+
+    @Override
+    public ChangeLog.Changes getChangesSince(String token) {
+        return read(() -> delegate.getChangesSince(token));
+    }
+
+    @Override
+    public void printAllTasks() {
+        read(() -> {
+            delegate.printAllTasks();
+            return null;
+        });
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return prioritizedSnapshot.get();
+    }
+
+    @Override
+    public List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to) {
+        return read(() -> copiesOf(delegate.getTasksBetween(from, to)));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        return read(() -> delegate.findFreeSlot(after, duration));
+    }
+
+    @Override
+    public List<TaskConflict> getConflicts() {
+        return read(delegate::getConflicts);
+    }
+
+    @Override
+    public void validateNoOverlap(Task task) {
+        read(() -> {
+            delegate.validateNoOverlap(task);
+            return null;
+        });
+    }
+
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        write(() -> delegate.applyBatch(batch));
+    }
+
+    @Override
+    public TaskPage<Task> getTasksPage(int limit, String cursor, TaskStatus status) {
+        return read(() -> copiesOf(delegate.getTasksPage(limit, cursor, status)));
+    }
+
+    @Override
+    public TaskPage<Epic> getEpicsPage(int limit, String cursor, TaskStatus status) {
+        return read(() -> copiesOf(delegate.getEpicsPage(limit, cursor, status)));
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasksPage(int limit, String cursor, TaskStatus status) {
+        return read(() -> copiesOf(delegate.getSubtasksPage(limit, cursor, status)));
+    }
+
+    @Override
+    public TaskPage<Task> getPrioritizedPage(int limit, String cursor, TaskStatus status) {
+        return read(() -> copiesOf(delegate.getPrioritizedPage(limit, cursor, status)));
+    }
+
+    @Override
+    public int[] getIdsByStatus(TaskType type, TaskStatus status) {
+        return read(() -> delegate.getIdsByStatus(type, status));
+    }
+
+    @Override
+    public int getCountByStatus(TaskType type, TaskStatus status) {
+        return read(() -> delegate.getCountByStatus(type, status));
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        return read(() -> copiesOf(delegate.search(query, limit)));
+    }
+}
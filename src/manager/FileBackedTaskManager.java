@@ -3,83 +3,448 @@ package manager;
 import model.*;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+
+// Снимок плюс журнал операций <файл>.log, который при загрузке проигрывается поверх снимка.
+// Если фоновая свёртка журнала не завершилась, проигрываются оба журнала: записи идемпотентны.
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private static final String HEADER = "id,type,name,status,description,epic,startTime,duration\n";
+    private static final int COMPACTION_MIN_RECORDS = 10_000;
+    private static final int WRITE_BEHIND_CAPACITY = 10_000;
+    private static final long PARALLEL_LOAD_CHUNK = 4 << 20;
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
     private final Path path;
+    private final Path log;
+    private final Path rotatedLog;
+    private BufferedWriter logWriter;
+    private final WriteBehindLog writeBehind;
+    private int logRecords;
+    // менеджер, созданный не из файла, сначала записывает свой снимок — старое содержимое файла не смешивается с новым
+    private boolean snapshotWritten;
+    private volatile boolean compacting;
+    private volatile Future<?> compaction;
+    private volatile ManagerSaveException compactionFailure;
+    private String tornRecord;
+    // фоновая свёртка не перезаписывает снимок, сделанный позже неё
+    private long snapshotGeneration;
+    private final Object snapshotLock = new Object();
+    private boolean binarySnapshot;
+    private long writtenGeneration;
 
     public FileBackedTaskManager(Path path) {
+        this(path, null);
+    }
+
+    public FileBackedTaskManager(Path path, WriteBehindLog.FsyncPolicy fsyncPolicy) {
         this.path = path;
+        this.log = path.resolveSibling(path.getFileName() + ".log");
+        this.rotatedLog = path.resolveSibling(path.getFileName() + ".log.old");
+        this.writeBehind = fsyncPolicy == null ? null : new WriteBehindLog(log, WRITE_BEHIND_CAPACITY, fsyncPolicy);
     }
 
     public static FileBackedTaskManager loadFromFile(Path path) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(path);
-        try (BufferedReader br = new BufferedReader(new FileReader(path.toFile()))) {
-            String line;
-            br.readLine();
-            int maxId = 0;
-            while ((line = br.readLine()) != null) {
-                String[] splitLine = line.split(",");
-                String taskType = splitLine[1];
-                int taskId = Integer.parseInt(splitLine[0]);
-                maxId = Math.max(maxId, taskId);
-                Task task = fromString(line);
-                switch (taskType) {
-                    case "TASK":
-                        manager.tasks.put(taskId, task);
-                        if (task.getStartTime() != null) {
-                            manager.sortedTasks.add(task);
-                        }
-                        break;
-                    case "EPIC":
-                        manager.epics.put(taskId, ((Epic) task));
-                        if (task.getStartTime() != null) {
-                            manager.sortedTasks.add(task);
-                        }
-                        break;
-                    case "SUBTASK":
-                        Subtask subtask = (Subtask) task;
-                        manager.subtasks.put(taskId, subtask);
-                        manager.epics.get(subtask.getEpicId()).getSubtaskIds().add(taskId);
-                        if (subtask.getStartTime() != null) {
-                            manager.sortedTasks.add(subtask);
-                        }
-                        break;
+        return loadFromFile(path, null);
+    }
+
+    public static FileBackedTaskManager loadFromFile(Path path, WriteBehindLog.FsyncPolicy fsyncPolicy) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, fsyncPolicy);
+        int maxId = manager.readRows();
+        // индексы строятся после журналов, по возрастанию id — общие индексы только дописываются в конец
+        for (int id = 1; id <= maxId; id++) {
+            Task task = manager.tasks.get(id);
+            Subtask subtask = manager.subtasks.get(id);
+            if (task != null) {
+                manager.taskStatuses.put(id, task.getStatus());
+                manager.sortedTasks.add(task);
+            } else if (subtask != null) {
+                manager.subtaskStatuses.put(id, subtask.getStatus());
+                Epic epic = manager.epics.get(subtask.getEpicId());
+                if (epic == null) {
+                    throw new ManagerFileLoadException("Подзадача %d в %s ссылается на отсутствующий эпик %d"
+                            .formatted(id, path, subtask.getEpicId()));
                 }
+                epic.addSubtask(id);
+                epic.getRollup().put(subtask);
+                manager.sortedTasks.add(subtask);
+                task = subtask;
+            } else {
+                task = manager.epics.get(id);
+            }
+            if (task != null) {
+                manager.searchIndex.put(task);
             }
-            manager.taskIdCounter = maxId;
+        }
+        manager.epics.forEach(manager::applyRollup);
+        manager.taskIdCounter = maxId;
+        manager.snapshotWritten = true;
+        return manager;
+    }
+
+    // наибольший встреченный id
+    int readRows() {
+        try {
+            int maxId = readSnapshot();
+            maxId = Math.max(maxId, replay(rotatedLog));
+            return Math.max(maxId, replay(log));
         } catch (IOException e) {
             throw new ManagerFileLoadException("Не удалось выгрузить задачи из файла");
         }
-        return manager;
+    }
+
+    private void putRow(Task task) {
+        if (task instanceof Subtask subtask) {
+            subtasks.put(subtask.getId(), subtask);
+        } else if (task instanceof Epic epic) {
+            epics.put(epic.getId(), epic);
+        } else {
+            tasks.put(task.getId(), task);
+        }
+    }
+
+    private void removeRow(int id) {
+        tasks.remove(id);
+        epics.remove(id);
+        subtasks.remove(id);
+    }
+
+    private int readSnapshot() throws IOException {
+        if (!Files.exists(path) && (Files.exists(log) || Files.exists(rotatedLog))) {
+            return 0;
+        }
+        int maxId = 0;
+        binarySnapshot = Files.exists(path) && SnapshotWriter.isSnapshot(path);
+        if (binarySnapshot) {
+            try (SnapshotReader reader = new SnapshotReader(path)) {
+                Task task;
+                while ((task = reader.next()) != null) {
+                    putRow(task);
+                    maxId = Math.max(maxId, task.getId());
+                }
+            }
+            return maxId;
+        }
+        long[] bounds = MappedCsvReader.splitLines(path, (int) Math.max(1, Files.size(path) / PARALLEL_LOAD_CHUNK));
+        if (bounds.length > 2) {
+            return readChunks(bounds);
+        }
+        for (Task task : readChunk(0, bounds[1])) {
+            putRow(task);
+            maxId = Math.max(maxId, task.getId());
+        }
+        return maxId;
+    }
+
+    // части разбираются параллельно, но попадают в карты в порядке файла
+    private int readChunks(long[] bounds) throws IOException {
+        List<ForkJoinTask<List<Task>>> parts = new ArrayList<>();
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            long from = bounds[i];
+            long to = bounds[i + 1];
+            parts.add(ForkJoinPool.commonPool().submit(() -> readChunk(from, to)));
+        }
+        int maxId = 0;
+        try {
+            for (ForkJoinTask<List<Task>> part : parts) {
+                for (Task task : part.get()) {
+                    putRow(task);
+                    maxId = Math.max(maxId, task.getId());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Загрузка прервана");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof IOException cause) throw cause;
+            throw new IOException(e.getCause());
+        } finally {
+            parts.forEach(part -> part.cancel(false));
+        }
+        return maxId;
+    }
+
+    private List<Task> readChunk(long from, long to) throws IOException {
+        List<Task> rows = new ArrayList<>();
+        try (MappedCsvReader reader = new MappedCsvReader(path, from, to)) {
+            Task task;
+            while ((task = reader.next()) != null) {
+                rows.add(task);
+            }
+        }
+        return rows;
+    }
+
+    // без перевода строки может кончаться только оборванная последняя запись; другая повреждённая — ошибка
+    private int replay(Path file) throws IOException {
+        if (!Files.exists(file)) return 0;
+        boolean torn = !endsWithLineBreak(file);
+        int maxId = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(file.toFile(), StandardCharsets.UTF_8))) {
+            String line = br.readLine();
+            while (line != null) {
+                String next = br.readLine();
+                if (next == null && torn) {
+                    tornRecord = line;
+                    break;
+                }
+                maxId = Math.max(maxId, replayRecord(file, line));
+                logRecords++;
+                line = next;
+            }
+        }
+        return maxId;
+    }
+
+    private int replayRecord(Path file, String line) {
+        try {
+            if (line.startsWith("+,")) {
+                Task task = fromString(line.substring(2));
+                putRow(task);
+                return task.getId();
+            }
+            if (line.startsWith("-,")) {
+                int id = Integer.parseInt(line.substring(2));
+                removeRow(id);
+                return id;
+            }
+        } catch (RuntimeException e) {
+            // ниже — та же ошибка, что для записи неизвестного вида
+        }
+        throw new ManagerFileLoadException("Повреждённая запись журнала " + file + ": " + line);
+    }
+
+    private static boolean endsWithLineBreak(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) return true;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, size - 1);
+            return last.get(0) == '\n' || last.get(0) == '\r';
+        }
+    }
+
+    // запись в журнал — до слушателей; сводка эпика в файл не пишется
+    @Override
+    protected void publish(TaskEvent.Kind kind, TaskType type, int id, Task task) {
+        switch (kind) {
+            case TASK_CREATED, TASK_UPDATED -> appendRecord("+," + toString(task));
+            case TASK_DELETED -> appendRecord("-," + id + "\n");
+            case EPIC_ROLLED_UP -> {
+            }
+        }
+        super.publish(kind, type, id, task);
+    }
+
+    private void appendRecord(String record) {
+        if (writeBehind != null) {
+            writeBehind.append(record);
+            logRecords++;
+            return;
+        }
+        try {
+            if (logWriter == null) {
+                logWriter = new BufferedWriter(new FileWriter(log.toFile(), StandardCharsets.UTF_8, true));
+            }
+            logWriter.write(record);
+            logRecords++;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось записать задачи в файл");
+        }
     }
 
     private void save() {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path.toFile()))) {
-            bw.write("id,type,name,status,description,epic,startTime,duration\n");
-            for (Map<Integer, ? extends Task> map : List.of(tasks, epics, subtasks)) {
-                for (Integer id : map.keySet()) {
-                    bw.write(toString(map.get(id)));
+        if (isInBatch()) return;
+        if (!snapshotWritten) {
+            compact();
+            return;
+        }
+        if (writeBehind == null) {
+            flush();
+        }
+        if (logRecords > Math.max(COMPACTION_MIN_RECORDS, tasks.size() + epics.size() + subtasks.size())
+                && !compacting) {
+            long generation = rotateLog();
+            List<Task> rows = snapshotRows();
+            compacting = true;
+            compaction = COMPACTOR.submit(() -> {
+                try {
+                    writeSnapshot(rows, generation);
+                    compactionFailure = null;
+                } catch (ManagerSaveException e) {
+                    // журнал остаётся в <файл>.log.old и будет проигран при загрузке
+                    compactionFailure = e;
+                } finally {
+                    compacting = false;
                 }
+            });
+        }
+    }
+
+    // оборванная последняя запись журнала, пропущенная при загрузке; null, если такой не было
+    public String getTornRecord() {
+        return tornRecord;
+    }
+
+    // ошибка последней фоновой свёртки; null, если она прошла успешно или ещё не запускалась
+    public ManagerSaveException getCompactionFailure() {
+        return compactionFailure;
+    }
+
+    public void compact() {
+        writeSnapshot(snapshotRows(), rotateLog());
+    }
+
+    // все изменения, сделанные до вызова, записаны в журнал
+    public void flush() {
+        if (writeBehind != null) {
+            writeBehind.flush();
+            return;
+        }
+        try {
+            if (logWriter != null) {
+                logWriter.flush();
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось записать задачи в файл");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (writeBehind != null) {
+            writeBehind.close();
+        } else {
+            closeLog();
+        }
+        if (compaction == null) return;
+        try {
+            compaction.get();
+            compaction = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Закрытие прервано до конца свёртки журнала");
+        } catch (ExecutionException e) {
+            compaction = null;
+            throw new ManagerSaveException("Не удалось записать задачи в файл");
+        }
+    }
+
+    private void closeLog() {
+        if (writeBehind != null) {
+            writeBehind.closeFile();
+            return;
+        }
+        try {
+            if (logWriter != null) {
+                logWriter.close();
+                logWriter = null;
             }
         } catch (IOException e) {
             throw new ManagerSaveException("Не удалось записать задачи в файл");
         }
     }
 
+    // под snapshotLock: фоновая свёртка удаляет старый журнал
+    private long rotateLog() {
+        closeLog();
+        synchronized (snapshotLock) {
+            try {
+                if (Files.exists(log)) {
+                    if (Files.exists(rotatedLog)) {
+                        Files.write(rotatedLog, Files.readAllBytes(log), StandardOpenOption.APPEND);
+                        Files.delete(log);
+                    } else {
+                        Files.move(log, rotatedLog);
+                    }
+                }
+            } catch (IOException e) {
+                throw new ManagerSaveException("Не удалось записать задачи в файл");
+            }
+        }
+        logRecords = 0;
+        snapshotWritten = true;
+        return ++snapshotGeneration;
+    }
+
+    // задачи заменяются при обновлении целиком, поэтому для снимка хватает ссылок на текущие объекты
+    List<Task> snapshotRows() {
+        List<Task> rows = new ArrayList<>(tasks.size() + epics.size() + subtasks.size());
+        rows.addAll(tasks.values());
+        rows.addAll(epics.values());
+        rows.addAll(subtasks.values());
+        return rows;
+    }
+
+    private void writeSnapshot(List<Task> rows, long generation) {
+        synchronized (snapshotLock) {
+            if (generation <= writtenGeneration) return;
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try {
+                if (binarySnapshot) {
+                    writeBinary(temp, rows);
+                } else {
+                    writeCsv(temp, rows);
+                }
+            } catch (IOException e) {
+                throw new ManagerSaveException("Не удалось записать задачи в файл");
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.deleteIfExists(rotatedLog);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Не удалось записать задачи в файл");
+            }
+            writtenGeneration = generation;
+        }
+    }
+
+    private static void writeCsv(Path file, List<Task> rows) throws IOException {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file.toFile(), StandardCharsets.UTF_8))) {
+            bw.write(HEADER);
+            for (Task task : rows) {
+                bw.write(toString(task));
+            }
+        }
+    }
+
+    static void writeBinary(Path file, Iterable<Task> rows) throws IOException {
+        try (SnapshotWriter writer = new SnapshotWriter(file)) {
+            for (Task task : rows) {
+                writer.write(task);
+            }
+        }
+    }
+
     private static String toString(Task task) {
         if (task instanceof Subtask subtask) {
 
             return String.format("%d,%s,%s,%s,%s,%d,%s,%s\n",
                     subtask.getId(),
                     TaskType.SUBTASK,
-                    subtask.getTitle(),
+                    escape(subtask.getTitle()),
                     subtask.getStatus(),
-                    subtask.getDescription(),
+                    escape(subtask.getDescription()),
                     subtask.getEpicId(),
                     subtask.getStartTime() != null ? subtask.getStartTime().toString() : "null",
                     subtask.getDuration() != null ? String.valueOf(subtask.getDuration().toMinutes()) : "null"
@@ -88,41 +453,42 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
             return String.format("%d,%s,%s,%s,%s\n",
                     epic.getId(),
                     TaskType.EPIC,
-                    epic.getTitle(),
+                    escape(epic.getTitle()),
                     epic.getStatus(),
-                    epic.getDescription()
+                    escape(epic.getDescription())
             );
         } else {
             return String.format("%d,%s,%s,%s,%s,%s,%s\n",
                     task.getId(),
                     TaskType.TASK,
-                    task.getTitle(),
+                    escape(task.getTitle()),
                     task.getStatus(),
-                    task.getDescription(),
+                    escape(task.getDescription()),
                     task.getStartTime() != null ? task.getStartTime().toString() : "null",
                     task.getDuration() != null ? String.valueOf(task.getDuration().toMinutes()) : "null"
             );
         }
     }
 
-    private static Task fromString(String task) {
-        String[] val = task.split(",");
+    // пустое последнее поле (например, описание эпика) не отбрасывается
+    static Task fromString(String task) {
+        String[] val = task.split(",", -1);
         return switch (val[1]) {
             case "TASK" ->
                     new Task(
                             Integer.parseInt(val[0]),
-                            val[2],
-                            val[4],
+                            unescape(val[2]),
+                            unescape(val[4]),
                             TaskStatus.valueOf(val[3]),
                             val[5].equals("null") ? null : LocalDateTime.parse(val[5]),
                             val[6].equals("null") ? null : Duration.ofMinutes(Long.parseLong(val[6]))
                     );
-            case "EPIC" -> new Epic(Integer.parseInt(val[0]), val[2], val[4]);
+            case "EPIC" -> new Epic(Integer.parseInt(val[0]), unescape(val[2]), unescape(val[4]));
             case "SUBTASK" ->
                     new Subtask(
                             Integer.parseInt(val[0]),
-                            val[2],
-                            val[4],
+                            unescape(val[2]),
+                            unescape(val[4]),
                             TaskStatus.valueOf(val[3]),
                             Integer.parseInt(val[5]),
                             val[6].equals("null") ? null : LocalDateTime.parse(val[6]),
@@ -132,74 +498,151 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         };
     }
 
+    // экранируются \, запятая и переводы строк
+    static String escape(String text) {
+        if (text == null) return null;
+        StringBuilder sb = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement = switch (c) {
+                case '\\' -> "\\\\";
+                case ',' -> "\\c";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                default -> null;
+            };
+            if (replacement == null) {
+                if (sb != null) sb.append(c);
+                continue;
+            }
+            if (sb == null) {
+                sb = new StringBuilder(text.length() + 8).append(text, 0, i);
+            }
+            sb.append(replacement);
+        }
+        return sb == null ? text : sb.toString();
+    }
+
+    // неизвестная пара \x остаётся как есть — так читаются файлы, записанные до экранирования
+    static String unescape(String text) {
+        int slash = text.indexOf('\\');
+        if (slash < 0) return text;
+        StringBuilder sb = new StringBuilder(text.length()).append(text, 0, slash);
+        for (int i = slash; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '\\' || i + 1 == text.length()) {
+                sb.append(c);
+                continue;
+            }
+            switch (text.charAt(i + 1)) {
+                case '\\' -> sb.append('\\');
+                case 'c' -> sb.append(',');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                default -> {
+                    sb.append(c);
+                    continue;
+                }
+            }
+            i++;
+        }
+        return sb.toString();
+    }
+
+    // ошибка фоновой записи проверяется до изменения, а не после него
+    private void checkLog() {
+        if (writeBehind != null) {
+            writeBehind.checkFailure();
+        }
+    }
+
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        checkLog();
+        super.applyBatch(batch);
+        save();
+    }
+
     @Override
     public void deleteAllTasks() {
+        checkLog();
         super.deleteAllTasks();
         save();
     }
 
     @Override
     public void createTask(Task task) {
+        checkLog();
         super.createTask(task);
         save();
     }
 
     @Override
     public void updateTaskById(Task task) {
+        checkLog();
         super.updateTaskById(task);
         save();
     }
 
     @Override
     public void deleteTaskById(int id) {
+        checkLog();
         super.deleteTaskById(id);
         save();
     }
 
     @Override
     public void deleteAllEpics() {
+        checkLog();
         super.deleteAllEpics();
         save();
     }
 
     @Override
     public void createEpic(Epic epic) {
+        checkLog();
         super.createEpic(epic);
         save();
     }
 
     @Override
     public void updateEpicById(Epic newEpic) {
+        checkLog();
         super.updateEpicById(newEpic);
         save();
     }
 
     @Override
     public void deleteEpicById(int id) {
+        checkLog();
         super.deleteEpicById(id);
         save();
     }
 
     @Override
     public void deleteAllSubtasks() {
+        checkLog();
         super.deleteAllSubtasks();
         save();
     }
 
     @Override
     public void createSubtask(Subtask subtask) {
+        checkLog();
         super.createSubtask(subtask);
         save();
     }
 
     @Override
     public void updateSubtaskById(Subtask subtask) {
+        checkLog();
         super.updateSubtaskById(subtask);
         save();
     }
 
     @Override
     public void deleteSubtaskById(int id) {
+        checkLog();
         super.deleteSubtaskById(id);
         save();
     }
@@ -1,37 +1,46 @@
 package manager;
 
 import model.Epic;
+import model.EpicRollup;
 import model.Subtask;
 import model.Task;
 import model.TaskStatus;
+import model.TaskType;
+import utils.IntObjectMap;
+import utils.IntSet;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.IntConsumer;
 
-public class InMemoryTaskManager implements TaskManager {
-    private final HistoryManager historyManager = Managers.getDefaultHistory();
-    protected final Set<Task> sortedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime));
+public class InMemoryTaskManager extends BaseTaskManager {
+    protected final ScheduleIndex sortedTasks = new ScheduleIndex();
     protected int taskIdCounter = 0;
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final Map<Integer, Subtask> subtasks = new HashMap<>();
-
-    @Override
-    public List<Task> getHistory() {
-        return historyManager.getHistory();
-    }
+    protected final IntObjectMap<Task> tasks = new IntObjectMap<>();
+    protected final IntObjectMap<Epic> epics = new IntObjectMap<>();
+    protected final IntObjectMap<Subtask> subtasks = new IntObjectMap<>();
+    protected final StatusIndex taskStatuses = new StatusIndex();
+    protected final StatusIndex epicStatuses = new StatusIndex();
+    protected final StatusIndex subtaskStatuses = new StatusIndex();
+    protected final SearchIndex searchIndex = new SearchIndex();
 
     @Override
     public List<Task> getListOfTasks() {
-        return new ArrayList<>(tasks.values());
+        return tasks.values();
     }
 
     @Override
     public void deleteAllTasks() {
-        tasks.keySet().forEach(historyManager::remove);
+        tasks.forEachKey(id -> {
+            historyManager.remove(id);
+            sortedTasks.remove(id);
+            searchIndex.remove(id);
+        });
+        IntSet deleted = keysOf(tasks);
         tasks.clear();
-        sortedTasks.removeIf(task -> !(task instanceof Subtask));
+        taskStatuses.clear();
+        deleted.forEach(id -> publish(TaskEvent.Kind.TASK_DELETED, TaskType.TASK, id, null));
     }
 
     @Override
@@ -45,52 +54,70 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void createTask(Task task) {
         if (task == null) return;
-        validateNoOverlap(task);
+        checkNoOverlap(task, task.getId());
         task.setId(++taskIdCounter);
         tasks.put(task.getId(), task);
-        if (task.getStartTime() != null) {
-            sortedTasks.add(task);
-        }
+        taskStatuses.put(task.getId(), task.getStatus());
+        searchIndex.put(task);
+        sortedTasks.add(task);
+        publish(TaskEvent.Kind.TASK_CREATED, TaskType.TASK, task.getId(), task);
     }
 
     @Override
     public void updateTaskById(Task task) {
         if (task == null || !tasks.containsKey(task.getId())) return;
-        validateNoOverlap(task);
+        checkNoOverlap(task, task.getId());
         tasks.put(task.getId(), task);
-        sortedTasks.removeIf(srtTask -> srtTask.getId() == task.getId());
-        if (task.getStartTime() != null) {
-            sortedTasks.add(task);
-        }
+        taskStatuses.put(task.getId(), task.getStatus());
+        searchIndex.put(task);
+        sortedTasks.add(task);
+        publish(TaskEvent.Kind.TASK_UPDATED, TaskType.TASK, task.getId(), task);
     }
 
     @Override
     public void deleteTaskById(int id) {
         historyManager.remove(id);
-        tasks.remove(id);
-        sortedTasks.removeIf(task -> task.getId() == id);
+        if (tasks.remove(id) == null) return;
+        taskStatuses.remove(id);
+        searchIndex.remove(id);
+        sortedTasks.remove(id);
+        publish(TaskEvent.Kind.TASK_DELETED, TaskType.TASK, id, null);
     }
 
     @Override
     public List<Epic> getListOfEpics() {
-        return new ArrayList<>(epics.values());
+        return epics.values();
     }
 
     @Override
     public List<Subtask> getSubtasksOfEpic(int id) {
         if (epics.get(id) == null) return null;
-        return getEpicById(id).getSubtaskIds().stream()
-                .map(subtasks::get)
-                .toList();
+        IntSet subtaskIds = getEpicById(id).getSubtaskIds();
+        List<Subtask> subtasksOfEpic = new ArrayList<>(subtaskIds.size());
+        subtaskIds.forEach(subtaskId -> subtasksOfEpic.add(subtasks.get(subtaskId)));
+        return subtasksOfEpic;
     }
 
     @Override
     public void deleteAllEpics() {
-        epics.keySet().forEach(historyManager::remove);
-        subtasks.keySet().forEach(historyManager::remove);
+        epics.forEachKey(id -> {
+            historyManager.remove(id);
+            sortedTasks.remove(id);
+            searchIndex.remove(id);
+        });
+        subtasks.forEachKey(id -> {
+            historyManager.remove(id);
+            sortedTasks.remove(id);
+            searchIndex.remove(id);
+        });
+        IntSet deletedSubtasks = keysOf(subtasks);
+        IntSet deletedEpics = keysOf(epics);
         subtasks.clear();
         epics.clear();
-        sortedTasks.removeIf(task -> task instanceof Subtask);
+        subtaskStatuses.clear();
+        epicStatuses.clear();
+        deletedSubtasks.forEach(id -> publish(TaskEvent.Kind.TASK_DELETED, TaskType.SUBTASK, id, null));
+        deletedEpics.forEach(id -> publish(TaskEvent.Kind.TASK_DELETED, TaskType.EPIC, id, null));
     }
 
     @Override
@@ -106,6 +133,9 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic == null) return;
         epic.setId(++taskIdCounter);
         epics.put(epic.getId(), epic);
+        epicStatuses.put(epic.getId(), epic.getStatus());
+        searchIndex.put(epic);
+        publish(TaskEvent.Kind.TASK_CREATED, TaskType.EPIC, epic.getId(), epic);
     }
 
     @Override
@@ -113,9 +143,11 @@ public class InMemoryTaskManager implements TaskManager {
         if (newEpic == null || !epics.containsKey(newEpic.getId())) return;
         Epic epic = epics.get(newEpic.getId());
         newEpic.setSubtaskIds(epic.getSubtaskIds());
+        newEpic.setRollup(epic.getRollup());
         epics.put(newEpic.getId(), newEpic);
-        updateEpicsStatus(epic.getId());
-        updateEpicsTime(epic.getId());
+        searchIndex.put(newEpic);
+        publish(TaskEvent.Kind.TASK_UPDATED, TaskType.EPIC, newEpic.getId(), newEpic);
+        applyRollup(newEpic);
     }
 
     @Override
@@ -123,89 +155,61 @@ public class InMemoryTaskManager implements TaskManager {
         historyManager.remove(id);
         Epic epic = epics.remove(id);
         if (epic == null) return;
+        epicStatuses.remove(id);
+        searchIndex.remove(id);
+        sortedTasks.remove(id);
         epic.getSubtaskIds().forEach(sbId -> {
             historyManager.remove(sbId);
             subtasks.remove(sbId);
+            subtaskStatuses.remove(sbId);
+            searchIndex.remove(sbId);
+            sortedTasks.remove(sbId);
+            publish(TaskEvent.Kind.TASK_DELETED, TaskType.SUBTASK, sbId, null);
         });
-        Set<Integer> victimIds = new HashSet<>(epic.getSubtaskIds());
-        victimIds.add(id);
-        sortedTasks.removeIf(t -> victimIds.contains(t.getId()));
+        publish(TaskEvent.Kind.TASK_DELETED, TaskType.EPIC, id, null);
     }
 
-    private void updateEpicsStatus(int id) {
-        Epic epic = epics.get(id);
-        if (epic == null) return;
-        if (epic.getSubtaskIds().isEmpty()) {
-            epic.setStatus(TaskStatus.NEW);
-        }
-
-        int countDone = 0;
-        int countNew = 0;
-
-        for (int subtaskId : epic.getSubtaskIds()) {
-            Subtask subtask = subtasks.get(subtaskId);
-            if (subtask == null) continue;
-            if (subtask.getStatus() == TaskStatus.DONE) countDone++;
-            if (subtask.getStatus() == TaskStatus.NEW) countNew++;
-        }
-
-        if (countDone == epic.getSubtaskIds().size()) {
-            epic.setStatus(TaskStatus.DONE);
-        } else if (countNew == epic.getSubtaskIds().size()) {
-            epic.setStatus(TaskStatus.NEW);
+    protected void applyRollup(Epic epic) {
+        if (deferRollup(epic.getId())) return;
+        EpicRollup rollup = epic.getRollup();
+        epic.setStatus(rollup.getStatus());
+        epicStatuses.put(epic.getId(), epic.getStatus());
+        LocalDateTime startTime = rollup.getStartTime();
+        LocalDateTime endTime = rollup.getEndTime();
+        if (startTime != null && endTime != null) {
+            epic.setStartTime(startTime);
+            epic.setEndTime(endTime);
+            epic.setDuration(Duration.between(startTime, endTime));
         } else {
-            epic.setStatus(TaskStatus.IN_PROGRESS);
-        }
-    }
-
-    private void updateEpicsTime(int id) {
-        Epic epic = epics.get(id);
-        if (epic == null) return;
-        if (epic.getSubtaskIds().isEmpty()) {
             epic.setStartTime(null);
-            epic.setDuration(null);
             epic.setEndTime(null);
-            return;
-        }
-
-
-        LocalDateTime earliestDT = epic.getSubtaskIds().stream()
-                .map(subtasks::get)
-                .map(Subtask::getStartTime)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo)
-                .orElse(null);
-        LocalDateTime latestDT = epic.getSubtaskIds().stream()
-                .map(subtasks::get)
-                .map(Subtask::getEndTime)
-                .filter(Objects::nonNull)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
-
-        if (earliestDT != null && latestDT != null) {
-            epic.setStartTime(earliestDT);
-            epic.setEndTime(latestDT);
-            epic.setDuration(Duration.between(earliestDT, latestDT));
+            epic.setDuration(null);
         }
+        publish(TaskEvent.Kind.EPIC_ROLLED_UP, TaskType.EPIC, epic.getId(), epic);
     }
 
-
     @Override
     public List<Subtask> getListOfSubtasks() {
-        return new ArrayList<>(subtasks.values());
+        return subtasks.values();
     }
 
     @Override
     public void deleteAllSubtasks() {
-        subtasks.keySet().forEach(historyManager::remove);
+        subtasks.forEachKey(id -> {
+            historyManager.remove(id);
+            sortedTasks.remove(id);
+            searchIndex.remove(id);
+        });
+        IntSet deleted = keysOf(subtasks);
         subtasks.clear();
+        subtaskStatuses.clear();
+        deleted.forEach(id -> publish(TaskEvent.Kind.TASK_DELETED, TaskType.SUBTASK, id, null));
 
-        epics.values().forEach(epic -> {
+        epics.forEach(epic -> {
             epic.getSubtaskIds().clear();
-            epic.setStatus(TaskStatus.NEW);
+            epic.getRollup().clear();
+            applyRollup(epic);
         });
-
-        sortedTasks.removeIf(task -> task instanceof Subtask);
     }
 
     @Override
@@ -219,45 +223,88 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void createSubtask(Subtask subtask) {
         if (subtask == null) return;
-        validateNoOverlap(subtask);
-        subtask.setId(++taskIdCounter);
-        subtasks.put(subtask.getId(), subtask);
-        Epic epic = epics.get(subtask.getEpicId());
+        Epic epic = requireEpic(subtask.getEpicId());
+        registerSubtask(subtask);
         epic.addSubtask(subtask.getId());
-        updateEpicsStatus(epic.getId());
-        updateEpicsTime(epic.getId());
-        if (subtask.getStartTime() != null) {
-            sortedTasks.add(subtask);
-        }
+        epic.getRollup().put(subtask);
+        applyRollup(epic);
     }
 
-
     @Override
     public void updateSubtaskById(Subtask subtask) {
-        if (subtask == null || !subtasks.containsKey(subtask.getId())) return;
-        validateNoOverlap(subtask);
-        subtasks.put(subtask.getId(), subtask);
-        Epic epic = epics.get(subtask.getEpicId());
-        updateEpicsStatus(epic.getId());
-        updateEpicsTime(epic.getId());
-        sortedTasks.removeIf(srtTask -> srtTask.getId() == subtask.getId());
-        if (subtask.getStartTime() != null) {
-            sortedTasks.add(subtask);
+        if (subtask == null) return;
+        Epic epic = requireEpic(subtask.getEpicId());
+        Subtask oldSubtask = replaceSubtask(subtask);
+        if (oldSubtask == null) return;
+        if (oldSubtask.getEpicId() != subtask.getEpicId()) {
+            Epic oldEpic = epics.get(oldSubtask.getEpicId());
+            oldEpic.removeSubtask(subtask.getId());
+            oldEpic.getRollup().remove(subtask.getId());
+            applyRollup(oldEpic);
+            epic.addSubtask(subtask.getId());
         }
+        epic.getRollup().put(subtask);
+        applyRollup(epic);
     }
 
-
     @Override
     public void deleteSubtaskById(int id) {
-        historyManager.remove(id);
-        Subtask subtask = subtasks.get(id);
+        Subtask subtask = unregisterSubtask(id);
         if (subtask == null) return;
-        subtasks.remove(id);
         Epic epic = epics.get(subtask.getEpicId());
-        epic.getSubtaskIds().remove(Integer.valueOf(id));
-        updateEpicsStatus(epic.getId());
-        updateEpicsTime(epic.getId());
-        sortedTasks.removeIf(task -> task.getId() == id);
+        epic.removeSubtask(id);
+        epic.getRollup().remove(id);
+        applyRollup(epic);
+    }
+
+    // эпик проверяется до любых изменений, чтобы подзадача без эпика не попала в индексы и журнал
+    private Epic requireEpic(int epicId) {
+        Epic epic = epics.get(epicId);
+        if (epic == null) {
+            throw new IllegalArgumentException("model.Epic %d not found".formatted(epicId));
+        }
+        return epic;
+    }
+
+    // методы ниже не трогают сводку эпика — StripedTaskManager блокирует их отдельно от эпика
+    protected void registerSubtask(Subtask subtask) {
+        checkNoOverlap(subtask, subtask.getId());
+        subtask.setId(++taskIdCounter);
+        subtasks.put(subtask.getId(), subtask);
+        subtaskStatuses.put(subtask.getId(), subtask.getStatus());
+        searchIndex.put(subtask);
+        sortedTasks.add(subtask);
+        publish(TaskEvent.Kind.TASK_CREATED, TaskType.SUBTASK, subtask.getId(), subtask);
+    }
+
+    protected Subtask replaceSubtask(Subtask subtask) {
+        if (!subtasks.containsKey(subtask.getId())) return null;
+        checkNoOverlap(subtask, subtask.getId());
+        Subtask oldSubtask = subtasks.put(subtask.getId(), subtask);
+        subtaskStatuses.put(subtask.getId(), subtask.getStatus());
+        searchIndex.put(subtask);
+        sortedTasks.add(subtask);
+        publish(TaskEvent.Kind.TASK_UPDATED, TaskType.SUBTASK, subtask.getId(), subtask);
+        return oldSubtask;
+    }
+
+    protected Subtask unregisterSubtask(int id) {
+        historyManager.remove(id);
+        Subtask subtask = subtasks.remove(id);
+        if (subtask != null) {
+            subtaskStatuses.remove(id);
+            searchIndex.remove(id);
+            sortedTasks.remove(id);
+            publish(TaskEvent.Kind.TASK_DELETED, TaskType.SUBTASK, id, null);
+        }
+        return subtask;
+    }
+
+
+    private static IntSet keysOf(IntObjectMap<?> map) {
+        IntSet keys = new IntSet(map.size());
+        map.forEachKey(keys::add);
+        return keys;
     }
 
     @Override
@@ -269,22 +316,126 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(sortedTasks);
+        return sortedTasks.getTasks();
+    }
+
+    @Override
+    public List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("Invalid time window: %s - %s".formatted(from, to));
+        }
+        return sortedTasks.tasksBetween(from, to);
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        if (after == null || duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Invalid slot request: %s, %s".formatted(after, duration));
+        }
+        return sortedTasks.findFreeSlot(after, duration);
+    }
+
+    @Override
+    public List<TaskConflict> getConflicts() {
+        return sortedTasks.findConflicts();
+    }
+
+    @Override
+    protected boolean exists(TaskType type, int id) {
+        return switch (type) {
+            case TASK -> tasks.containsKey(id);
+            case EPIC -> epics.containsKey(id);
+            case SUBTASK -> subtasks.containsKey(id);
+        };
+    }
+
+    @Override
+    protected Task stored(TaskType type, int id) {
+        return switch (type) {
+            case TASK -> tasks.get(id);
+            case EPIC -> epics.get(id);
+            case SUBTASK -> subtasks.get(id);
+        };
+    }
+
+    @Override
+    protected void forEachSubtaskOf(int epicId, IntConsumer action) {
+        epics.get(epicId).getSubtaskIds().forEach(action);
+    }
+
+    @Override
+    protected boolean overlapsSchedule(Task task, int id, IntSet ignored) {
+        return sortedTasks.overlaps(task, id, ignored);
+    }
+
+    @Override
+    protected void applyBatchRollup(int epicId) {
+        Epic epic = epics.get(epicId);
+        if (epic != null) {
+            applyRollup(epic);
+        }
+    }
+
+    @Override
+    public TaskPage<Task> getTasksPage(int limit, String cursor, TaskStatus status) {
+        return pageById(tasks, limit, cursor, status);
+    }
+
+    @Override
+    public TaskPage<Epic> getEpicsPage(int limit, String cursor, TaskStatus status) {
+        return pageById(epics, limit, cursor, status);
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasksPage(int limit, String cursor, TaskStatus status) {
+        return pageById(subtasks, limit, cursor, status);
     }
 
-    private boolean isOverlapping(Task task1, Task task2) {
-        return task1.getEndTime().isAfter(task2.getStartTime()) && task1.getStartTime().isBefore(task2.getEndTime());
+    @Override
+    public TaskPage<Task> getPrioritizedPage(int limit, String cursor, TaskStatus status) {
+        requirePositive(limit);
+        LocalDateTime afterStart = cursor == null ? null : PageCursor.decodeTime(cursor);
+        int afterId = cursor == null ? 0 : PageCursor.decodeTimeId(cursor);
+        List<Task> items = sortedTasks.tasksAfter(afterStart, afterId, limit + 1, task -> hasStatus(task, status));
+        return toPage(items, limit, last -> PageCursor.ofTime(last.getStartTime(), last.getId()));
+    }
+
+    private <T extends Task> TaskPage<T> pageById(IntObjectMap<T> map, int limit, String cursor, TaskStatus status) {
+        requirePositive(limit);
+        int afterId = cursor == null ? Integer.MIN_VALUE : PageCursor.decodeId(cursor);
+        List<T> items = map.valuesAfter(afterId, limit + 1, task -> hasStatus(task, status));
+        return toPage(items, limit, last -> PageCursor.ofId(last.getId()));
     }
 
     @Override
-    public void validateNoOverlap(Task task) {
-        if (task.getStartTime() == null) return;
-        boolean overlaps = getPrioritizedTasks().stream()
-                .filter(t -> !t.equals(task))
-                .anyMatch(t -> isOverlapping(t, task));
-        if (overlaps) {
-            throw new IllegalStateException(
-                    "model.Task %d overlaps with existing tasks".formatted(task.getId()));
+    public int[] getIdsByStatus(TaskType type, TaskStatus status) {
+        return statusesOf(type).ids(status);
+    }
+
+    @Override
+    public int getCountByStatus(TaskType type, TaskStatus status) {
+        return statusesOf(type).count(status);
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        requirePositive(limit);
+        List<Integer> ids = searchIndex.search(query, limit);
+        List<Task> found = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Task task = tasks.get(id);
+            if (task == null) task = epics.get(id);
+            if (task == null) task = subtasks.get(id);
+            found.add(task);
         }
+        return found;
+    }
+
+    private StatusIndex statusesOf(TaskType type) {
+        return switch (type) {
+            case TASK -> taskStatuses;
+            case EPIC -> epicStatuses;
+            case SUBTASK -> subtaskStatuses;
+        };
     }
 }
@@ -14,4 +14,20 @@ public class Managers {
     public static TaskManager getFileBacked() {
         return FileBackedTaskManager.loadFromFile(Paths.get("resources/saves.csv"));
     }
+
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager(getDefault());
+    }
+
+    public static TaskManager getConcurrent(TaskManager manager) {
+        return new ConcurrentTaskManager(manager);
+    }
+
+    public static TaskManager getCompact() {
+        return new ConcurrentTaskManager(new CompactTaskManager());
+    }
+
+    public static TaskManager getStriped() {
+        return new StripedTaskManager(Runtime.getRuntime().availableProcessors() * 4);
+    }
 }
@@ -0,0 +1,292 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+// Разбор CSV-снимка прямо из отображённого в память файла; строку непривычного вида разбирает fromString.
+public class MappedCsvReader implements AutoCloseable {
+    private static final long WINDOW = 1L << 30;
+    private static final int MAX_FIELDS = 8;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final FileChannel channel;
+    private final long end;
+    private final Charset charset = StandardCharsets.UTF_8;
+    private final int[] fieldStarts = new int[MAX_FIELDS + 1];
+    private MappedByteBuffer buffer;
+    private long base;
+    private int position;
+    private int lineEnd;
+    private boolean skipLineFeed;
+    private byte[] scratch = new byte[256];
+
+    public MappedCsvReader(Path file) throws IOException {
+        this(file, 0, Files.size(file));
+    }
+
+    public MappedCsvReader(Path file, long from, long to) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        end = Math.min(to, channel.size());
+        map(Math.min(from, end));
+        if (from == 0 && findLine()) {
+            position = nextLineStart();
+        }
+    }
+
+    // границы частей сдвинуты до начала строки, пара \r
+    //  не разрывается
+    public static long[] splitLines(Path file, int parts) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = new long[parts + 1];
+            int count = 1;
+            for (int i = 1; i < parts; i++) {
+                long bound = lineStart(channel, Math.max(size / parts * i, bounds[count - 1] + 1), size);
+                if (bound >= size) break;
+                bounds[count++] = bound;
+            }
+            bounds[count++] = size;
+            return Arrays.copyOf(bounds, count);
+        }
+    }
+
+    public Task next() throws IOException {
+        if (!findLine()) return null;
+        Task task = parseLine();
+        position = nextLineStart();
+        return task;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+
+    private void map(long offset) throws IOException {
+        base = offset;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW, end - offset));
+        position = 0;
+    }
+
+    private static long lineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(8192);
+        long offset = from - 1;
+        while (offset < size) {
+            chunk.clear();
+            int read = channel.read(chunk, offset);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                byte b = chunk.get(i);
+                if (b == '\n') return offset + i + 1;
+                if (b == '\r') {
+                    long next = offset + i + 1;
+                    chunk.clear().limit(1);
+                    if (next < size && channel.read(chunk, next) == 1 && chunk.get(0) == '\n') next++;
+                    return next;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private boolean findLine() throws IOException {
+        while (true) {
+            int limit = buffer.limit();
+            if (skipLineFeed && position < limit) {
+                // \r\n, разорванный границей окна
+                skipLineFeed = false;
+                if (buffer.get(position) == '\n') position++;
+            }
+            if (position == limit && base + limit == end) return false;
+            for (int i = position; i < limit; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n' || b == '\r') {
+                    lineEnd = i;
+                    return true;
+                }
+            }
+            if (base + limit == end) {
+                lineEnd = limit;
+                return true;
+            }
+            if (position == 0) {
+                throw new ManagerFileLoadException("Слишком длинная строка в файле");
+            }
+            map(base + position);
+        }
+    }
+
+    private int nextLineStart() {
+        int limit = buffer.limit();
+        int next = lineEnd + 1;
+        if (lineEnd < limit && buffer.get(lineEnd) == '\r') {
+            if (next == limit) {
+                skipLineFeed = true;
+            } else if (buffer.get(next) == '\n') {
+                next++;
+            }
+        }
+        return Math.min(next, limit);
+    }
+
+    private Task parseLine() {
+        try {
+            Task task = decode();
+            if (task != null) return task;
+        } catch (RuntimeException e) {
+            // ошибку с привычным текстом выбросит fromString
+        }
+        return FileBackedTaskManager.fromString(string(position, lineEnd));
+    }
+
+    private Task decode() {
+        int fields = splitFields();
+        if (fields < 2) return null;
+        int id = parseInt(0);
+        if (id < 0) return null;
+        if (fieldEquals(1, "EPIC")) {
+            return fields == 5 ? new Epic(id, field(2), field(4)) : null;
+        }
+        boolean subtask = fieldEquals(1, "SUBTASK");
+        if (!subtask && !fieldEquals(1, "TASK") || fields != (subtask ? 8 : 7)) return null;
+        TaskStatus status = parseStatus(3);
+        int timeField = subtask ? 6 : 5;
+        int epicId = subtask ? parseInt(5) : 0;
+        if (status == null || epicId < 0) return null;
+        LocalDateTime startTime = null;
+        if (!fieldEquals(timeField, "null")) {
+            startTime = parseDateTime(timeField);
+            if (startTime == null) return null;
+        }
+        Duration duration = null;
+        if (!fieldEquals(timeField + 1, "null")) {
+            duration = parseMinutes(timeField + 1);
+            if (duration == null) return null;
+        }
+        return subtask
+                ? new Subtask(id, field(2), field(4), status, epicId, startTime, duration)
+                : new Task(id, field(2), field(4), status, startTime, duration);
+    }
+
+    private int splitFields() {
+        int fields = 0;
+        fieldStarts[fields++] = position;
+        for (int i = position; i < lineEnd; i++) {
+            if (buffer.get(i) == ',') {
+                if (fields == MAX_FIELDS) return 0;
+                fieldStarts[fields++] = i + 1;
+            }
+        }
+        fieldStarts[fields] = lineEnd + 1;
+        return fields;
+    }
+
+    private int fieldStart(int field) {
+        return fieldStarts[field];
+    }
+
+    private int fieldEnd(int field) {
+        return fieldStarts[field + 1] - 1;
+    }
+
+    private boolean fieldEquals(int field, String value) {
+        int start = fieldStart(field);
+        if (fieldEnd(field) - start != value.length()) return false;
+        for (int i = 0; i < value.length(); i++) {
+            if (buffer.get(start + i) != value.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // текст в файле экранирован, запятых внутри поля нет
+    private String field(int field) {
+        return FileBackedTaskManager.unescape(string(fieldStart(field), fieldEnd(field)));
+    }
+
+    private String string(int from, int to) {
+        int length = to - from;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, charset);
+    }
+
+    private TaskStatus parseStatus(int field) {
+        for (TaskStatus status : STATUSES) {
+            if (fieldEquals(field, status.name())) return status;
+        }
+        return null;
+    }
+
+    private int parseInt(int field) {
+        long value = parseDigits(fieldStart(field), fieldEnd(field));
+        return value > Integer.MAX_VALUE ? -1 : (int) value;
+    }
+
+    private Duration parseMinutes(int field) {
+        int start = fieldStart(field);
+        boolean negative = start < fieldEnd(field) && buffer.get(start) == '-';
+        long minutes = parseDigits(negative ? start + 1 : start, fieldEnd(field));
+        if (minutes < 0) return null;
+        return Duration.ofMinutes(negative ? -minutes : minutes);
+    }
+
+    private long parseDigits(int from, int to) {
+        if (from == to || to - from > 18) return -1;
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private LocalDateTime parseDateTime(int field) {
+        int start = fieldStart(field);
+        int length = fieldEnd(field) - start;
+        if (length < 16 || length == 17 || length == 18 || length == 20 || length > 29) return null;
+        if (buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-' || buffer.get(start + 10) != 'T'
+                || buffer.get(start + 13) != ':') {
+            return null;
+        }
+        long year = parseDigits(start, start + 4);
+        long month = parseDigits(start + 5, start + 7);
+        long day = parseDigits(start + 8, start + 10);
+        long hour = parseDigits(start + 11, start + 13);
+        long minute = parseDigits(start + 14, start + 16);
+        long second = 0;
+        long nanos = 0;
+        if (length > 16) {
+            if (buffer.get(start + 16) != ':') return null;
+            second = parseDigits(start + 17, start + 19);
+        }
+        if (length > 19) {
+            if (buffer.get(start + 19) != '.') return null;
+            nanos = parseDigits(start + 20, start + length);
+            for (int i = length - 20; i < 9; i++) {
+                nanos *= 10;
+            }
+        }
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0 || nanos < 0) return null;
+        return LocalDateTime.of((int) year, (int) month, (int) day, (int) hour, (int) minute, (int) second, (int) nanos);
+    }
+}
@@ -0,0 +1,79 @@
+package manager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Курсоры непрозрачны для клиента: внутри либо последний id, либо пара (startTime, id) для расписания.
+public final class PageCursor {
+    private static final String ID_PREFIX = "id:";
+    private static final String TIME_PREFIX = "time:";
+
+    private PageCursor() {
+    }
+
+    public static String ofId(int id) {
+        return encode(ID_PREFIX + id);
+    }
+
+    public static String ofTime(LocalDateTime startTime, int id) {
+        return encode(TIME_PREFIX + startTime + "|" + id);
+    }
+
+    public static int decodeId(String cursor) {
+        String value = decode(cursor, ID_PREFIX);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw invalid(cursor);
+        }
+    }
+
+    public static LocalDateTime decodeTime(String cursor) {
+        String value = decode(cursor, TIME_PREFIX);
+        try {
+            return LocalDateTime.parse(value.substring(0, separator(cursor, value)));
+        } catch (DateTimeParseException e) {
+            throw invalid(cursor);
+        }
+    }
+
+    public static int decodeTimeId(String cursor) {
+        String value = decode(cursor, TIME_PREFIX);
+        try {
+            return Integer.parseInt(value.substring(separator(cursor, value) + 1));
+        } catch (NumberFormatException e) {
+            throw invalid(cursor);
+        }
+    }
+
+    private static int separator(String cursor, String value) {
+        int separator = value.indexOf('|');
+        if (separator < 0) {
+            throw invalid(cursor);
+        }
+        return separator;
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor, String prefix) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalid(cursor);
+        }
+        if (!value.startsWith(prefix)) {
+            throw invalid(cursor);
+        }
+        return value.substring(prefix.length());
+    }
+
+    private static IllegalArgumentException invalid(String cursor) {
+        return new IllegalArgumentException("Invalid page cursor: " + cursor);
+    }
+}
@@ -0,0 +1,207 @@
+package manager;
+
+import model.Task;
+import utils.IntObjectMap;
+import utils.IntSet;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Predicate;
+
+public class ScheduleIndex {
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::start).thenComparingInt(Entry::id);
+
+    // Интервалы ненулевой длины не пересекаются, поэтому сосед ищется только по spans:
+    // точка с тем же началом иначе заслонила бы длинную задачу.
+    private final NavigableSet<Entry> spans = new TreeSet<>(ORDER);
+    private final NavigableSet<Entry> points = new TreeSet<>(ORDER);
+    private final IntObjectMap<Entry> entriesById = new IntObjectMap<>();
+
+    // интервал запоминается при добавлении, чтобы внешнее изменение задачи не ломало порядок в дереве
+    private record Entry(LocalDateTime start, LocalDateTime end, int id, Task task) {
+        private boolean isPoint() {
+            return !end.isAfter(start);
+        }
+    }
+
+    public void add(Task task) {
+        add(task, task.getId());
+    }
+
+    public void add(Task task, int id) {
+        remove(id);
+        if (task.getStartTime() == null) return;
+        Entry entry = new Entry(task.getStartTime(), endOf(task), id, task);
+        treeOf(entry).add(entry);
+        entriesById.put(entry.id(), entry);
+    }
+
+    public void remove(int id) {
+        Entry entry = entriesById.remove(id);
+        if (entry != null) {
+            treeOf(entry).remove(entry);
+        }
+    }
+
+    public void clear() {
+        spans.clear();
+        points.clear();
+        entriesById.clear();
+    }
+
+    public int size() {
+        return entriesById.size();
+    }
+
+    public List<Task> getTasks() {
+        List<Task> sorted = new ArrayList<>(size());
+        for (Entry entry : merged(spans, points)) {
+            sorted.add(entry.task());
+        }
+        return sorted;
+    }
+
+    public boolean overlaps(Task task) {
+        return overlaps(task, task.getId(), null);
+    }
+
+    public List<Task> tasksAfter(LocalDateTime start, int id, int limit, Predicate<? super Task> filter) {
+        Entry position = new Entry(start, start, id, null);
+        Iterable<Entry> tail = start == null
+                ? merged(spans, points)
+                : merged(spans.tailSet(position, false), points.tailSet(position, false));
+        List<Task> page = new ArrayList<>(Math.min(limit, size()));
+        for (Entry entry : tail) {
+            if (page.size() == limit) break;
+            if (filter.test(entry.task())) {
+                page.add(entry.task());
+            }
+        }
+        return page;
+    }
+
+    public List<Task> tasksBetween(LocalDateTime from, LocalDateTime to) {
+        List<Task> window = new ArrayList<>();
+        Entry lowest = new Entry(from, from, Integer.MIN_VALUE, null);
+        Entry before = spans.lower(lowest);
+        if (before != null && before.end().isAfter(from)) {
+            window.add(before.task());
+        }
+        Entry highest = new Entry(to, to, Integer.MIN_VALUE, null);
+        for (Entry entry : merged(spans.subSet(lowest, true, highest, false),
+                points.subSet(lowest, true, highest, false))) {
+            window.add(entry.task());
+        }
+        return window;
+    }
+
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        LocalDateTime candidate = after;
+        Entry lowest = new Entry(after, after, Integer.MIN_VALUE, null);
+        Entry before = spans.lower(lowest);
+        if (before != null && before.end().isAfter(candidate)) {
+            candidate = before.end();
+        }
+        for (Entry entry : merged(spans.tailSet(lowest, true), points.tailSet(lowest, true))) {
+            if (!entry.start().isBefore(candidate.plus(duration))) break;
+            if (entry.end().isAfter(candidate)) {
+                candidate = entry.end();
+            }
+        }
+        return candidate;
+    }
+
+    // все пересекающиеся пары — для данных из файла, попавших в индекс без проверки
+    public List<TaskConflict> findConflicts() {
+        List<TaskConflict> conflicts = new ArrayList<>();
+        PriorityQueue<Entry> active = new PriorityQueue<>(Comparator.comparing(Entry::end));
+        for (Entry entry : merged(spans, points)) {
+            while (!active.isEmpty() && !active.peek().end().isAfter(entry.start())) {
+                active.poll();
+            }
+            for (Entry other : active) {
+                if (isOverlapping(other, entry.start(), entry.end())) {
+                    LocalDateTime to = other.end().isBefore(entry.end()) ? other.end() : entry.end();
+                    conflicts.add(new TaskConflict(other.id(), entry.id(), entry.start(), to));
+                }
+            }
+            active.add(entry);
+        }
+        conflicts.sort(Comparator.comparing(TaskConflict::from)
+                .thenComparingInt(TaskConflict::firstId).thenComparingInt(TaskConflict::secondId));
+        return conflicts;
+    }
+
+    public boolean overlaps(Task task, int id, IntSet ignored) {
+        if (task.getStartTime() == null) return false;
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = endOf(task);
+        Entry before = spans.floor(new Entry(start, start, Integer.MAX_VALUE, null));
+        while (before != null && isSkipped(before, id, ignored)) {
+            before = spans.lower(before);
+        }
+        if (before != null && isOverlapping(before, start, end)) return true;
+        if (!start.isBefore(end)) return false;
+        Entry from = new Entry(start, start, Integer.MAX_VALUE, null);
+        Entry to = new Entry(end, end, Integer.MIN_VALUE, null);
+        return startsInside(spans.subSet(from, false, to, false), id, ignored)
+                || startsInside(points.subSet(from, false, to, false), id, ignored);
+    }
+
+    private static boolean startsInside(Set<Entry> inside, int id, IntSet ignored) {
+        for (Entry entry : inside) {
+            if (!isSkipped(entry, id, ignored)) return true;
+        }
+        return false;
+    }
+
+    private NavigableSet<Entry> treeOf(Entry entry) {
+        return entry.isPoint() ? points : spans;
+    }
+
+    private static Iterable<Entry> merged(SortedSet<Entry> first, SortedSet<Entry> second) {
+        if (second.isEmpty()) return first;
+        if (first.isEmpty()) return second;
+        return () -> new Iterator<>() {
+            private final Iterator<Entry> left = first.iterator();
+            private final Iterator<Entry> right = second.iterator();
+            private Entry nextLeft = left.next();
+            private Entry nextRight = right.next();
+
+            @Override
+            public boolean hasNext() {
+                return nextLeft != null || nextRight != null;
+            }
+
+            @Override
+            public Entry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Entry entry;
+                if (nextRight == null || (nextLeft != null && ORDER.compare(nextLeft, nextRight) < 0)) {
+                    entry = nextLeft;
+                    nextLeft = left.hasNext() ? left.next() : null;
+                } else {
+                    entry = nextRight;
+                    nextRight = right.hasNext() ? right.next() : null;
+                }
+                return entry;
+            }
+        };
+    }
+
+    private static boolean isSkipped(Entry entry, int id, IntSet ignored) {
+        return entry.id() == id || (ignored != null && ignored.contains(entry.id()));
+    }
+
+    private static boolean isOverlapping(Entry entry, LocalDateTime start, LocalDateTime end) {
+        return entry.end().isAfter(start) && entry.start().isBefore(end);
+    }
+
+    private static LocalDateTime endOf(Task task) {
+        LocalDateTime endTime = task.getEndTime();
+        return endTime != null ? endTime : task.getStartTime();
+    }
+}
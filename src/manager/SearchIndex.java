@@ -0,0 +1,99 @@
+package manager;
+
+import model.Task;
+import utils.IntObjectMap;
+import utils.IntSet;
+
+import java.util.*;
+
+// Инвертированный индекс по словам заголовка и описания; ё считается за е.
+public class SearchIndex {
+    private static final String[] NO_TOKENS = new String[0];
+
+    private final Map<String, IntSet> postings = new HashMap<>();
+    private final IntObjectMap<String[]> tokensById = new IntObjectMap<>();
+
+    public void put(Task task) {
+        int id = task.getId();
+        Set<String> words = tokenize(task.getTitle());
+        words.addAll(tokenize(task.getDescription()));
+        String[] oldTokens = tokensById.get(id);
+        if (oldTokens != null) {
+            for (String token : oldTokens) {
+                if (!words.contains(token)) {
+                    removePosting(token, id);
+                }
+            }
+        }
+        for (String token : words) {
+            postings.computeIfAbsent(token, key -> new IntSet()).add(id);
+        }
+        if (words.isEmpty()) {
+            tokensById.remove(id);
+        } else {
+            tokensById.put(id, words.toArray(NO_TOKENS));
+        }
+    }
+
+    public void remove(int id) {
+        String[] tokens = tokensById.remove(id);
+        if (tokens == null) return;
+        for (String token : tokens) {
+            removePosting(token, id);
+        }
+    }
+
+    private void removePosting(String token, int id) {
+        IntSet ids = postings.get(token);
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            postings.remove(token);
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+        tokensById.clear();
+    }
+
+    // обходится только самый короткий список
+    public List<Integer> search(String query, int limit) {
+        Set<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) return List.of();
+        List<IntSet> lists = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            IntSet ids = postings.get(token);
+            if (ids == null) return List.of();
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(IntSet::size));
+        IntSet shortest = lists.get(0);
+        List<IntSet> rest = lists.subList(1, lists.size());
+        List<Integer> found = new ArrayList<>(Math.min(limit, shortest.size()));
+        shortest.forEachWhile(id -> {
+            for (IntSet ids : rest) {
+                if (!ids.contains(id)) return true;
+            }
+            found.add(id);
+            return found.size() < limit;
+        });
+        return found;
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) return tokens;
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                c = Character.toLowerCase(c);
+                token.append(c == 'ё' ? 'е' : c);
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,31 @@
+package manager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+// Перевод CSV-снимка (вместе с его журналами) в двоичный формат SnapshotWriter.
+public class SnapshotConverter {
+
+    public static void convert(Path csv, Path snapshot) {
+        FileBackedTaskManager source = new FileBackedTaskManager(csv);
+        source.readRows();
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try {
+            FileBackedTaskManager.writeBinary(temp, source.snapshotRows());
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось записать снимок " + snapshot);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Использование: SnapshotConverter <saves.csv> <saves.bin>");
+            System.exit(2);
+        }
+        convert(Paths.get(args[0]), Paths.get(args[1]));
+    }
+}
@@ -0,0 +1,217 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static manager.SnapshotWriter.*;
+
+// Чтение снимка SnapshotWriter; повреждённый или обрезанный файл — ManagerFileLoadException.
+public class SnapshotReader implements AutoCloseable {
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final Path file;
+    private final DataInputStream in;
+    private final CRC32 crc = new CRC32();
+    private final Inflater inflater = new Inflater();
+    private byte[] compressed = new byte[0];
+    private byte[] block = new byte[0];
+    private int position;
+    private int blockLength;
+    private int blockRecords;
+    private boolean finished;
+    private final int version;
+    private long remaining;
+
+    public SnapshotReader(Path file) throws IOException {
+        this.file = file;
+        remaining = Files.size(file) - Integer.BYTES - 1;
+        in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw corrupted("не снимок задач");
+            }
+            version = in.readUnsignedByte();
+            if (version < 1 || version > VERSION) {
+                throw corrupted("неподдерживаемая версия " + version);
+            }
+        } catch (EOFException e) {
+            in.close();
+            throw corrupted("файл обрезан");
+        } catch (ManagerFileLoadException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    public Task next() throws IOException {
+        if (blockRecords == 0 && !finished) {
+            readBlock();
+        }
+        if (finished) return null;
+        blockRecords--;
+        Task task = readRecord();
+        if (blockRecords == 0 && position != blockLength) {
+            throw corrupted("лишние данные в конце блока");
+        }
+        return task;
+    }
+
+    private Task readRecord() {
+        int type = getByte();
+        int flags = getByte();
+        int id = (int) getVarLong();
+        int statusCode = getByte() & 0xFF;
+        if (type < 0 || type > 2 || statusCode != NO_STATUS && statusCode >= STATUSES.length) {
+            throw corrupted("неверная запись");
+        }
+        TaskStatus status = statusCode == NO_STATUS ? null : STATUSES[statusCode];
+        String title = (flags & FLAG_TITLE) != 0 ? getString() : null;
+        String description = (flags & FLAG_DESCRIPTION) != 0 ? getString() : null;
+        if (type == 1) {
+            Epic epic = new Epic(id, title, description);
+            epic.setStatus(status);
+            return epic;
+        }
+        int epicId = type == 2 ? (int) getVarLong() : 0;
+        try {
+            LocalDateTime startTime = null;
+            if ((flags & FLAG_START) != 0) {
+                long seconds = unzigzag(getVarLong());
+                int nanos = (flags & FLAG_START_NANOS) != 0 ? (int) getVarLong() : 0;
+                startTime = LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+            }
+            Duration duration = null;
+            if ((flags & FLAG_DURATION) != 0) {
+                long seconds = unzigzag(getVarLong());
+                duration = Duration.ofSeconds(seconds, (flags & FLAG_DURATION_NANOS) != 0 ? getVarLong() : 0);
+            }
+            return type == 2
+                    ? new Subtask(id, title, description, status, epicId, startTime, duration)
+                    : new Task(id, title, description, status, startTime, duration);
+        } catch (DateTimeException | ArithmeticException e) {
+            throw corrupted("неверное время задачи");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    // сжатые данные не длиннее остатка файла, а длину распакованных подтверждает контрольная сумма
+    private void readBlock() throws IOException {
+        try {
+            crc.reset();
+            long records = readVarLong();
+            long length = readVarLong();
+            long compressedLength = readVarLong();
+            if (version == 1) {
+                crc.reset();
+            }
+            if (compressedLength < 0 || compressedLength > remaining - Integer.BYTES) {
+                throw corrupted("файл обрезан");
+            }
+            if (records < 0 || length < 0 || length > Integer.MAX_VALUE - 8 || records > length
+                    || (records == 0) != (length == 0) || (compressedLength == 0) != (length == 0)) {
+                throw corrupted("неверный заголовок блока");
+            }
+            if (compressed.length < compressedLength) {
+                compressed = new byte[(int) compressedLength];
+            }
+            in.readFully(compressed, 0, (int) compressedLength);
+            crc.update(compressed, 0, (int) compressedLength);
+            remaining -= compressedLength + Integer.BYTES;
+            if ((int) crc.getValue() != in.readInt()) {
+                throw corrupted("неверная контрольная сумма блока");
+            }
+            if (block.length < length) {
+                block = new byte[(int) length];
+            }
+            inflate((int) compressedLength, (int) length);
+            blockRecords = (int) records;
+            blockLength = (int) length;
+            position = 0;
+            finished = blockRecords == 0;
+        } catch (EOFException e) {
+            throw corrupted("файл обрезан");
+        }
+    }
+
+    private void inflate(int compressedLength, int length) {
+        if (length == 0) return;
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            if (inflater.inflate(block, 0, length) != length || !inflater.finished()) {
+                throw corrupted("неверная длина блока");
+            }
+        } catch (DataFormatException e) {
+            throw corrupted("блок не распаковывается");
+        }
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            remaining--;
+            crc.update(b);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw corrupted("слишком длинное число");
+    }
+
+    private int getByte() {
+        if (position >= blockLength) {
+            throw corrupted("запись выходит за границу блока");
+        }
+        return block[position++];
+    }
+
+    private long getVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = getByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw corrupted("слишком длинное число");
+    }
+
+    private String getString() {
+        long length = getVarLong();
+        if (length < 0 || length > blockLength - position) {
+            throw corrupted("запись выходит за границу блока");
+        }
+        String value = new String(block, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        return value;
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private ManagerFileLoadException corrupted(String reason) {
+        return new ManagerFileLoadException("Повреждённый снимок " + file + ": " + reason);
+    }
+}
@@ -0,0 +1,167 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// Двоичный снимок задач. Формат (версия 2):
+//   заголовок: int MAGIC ("TMSN"), байт VERSION;
+//   блоки: varint число записей, varint длина записей, varint длина сжатых данных, записи, сжатые Deflate
+//   (BEST_SPEED), int CRC32 трёх чисел заголовка блока и сжатых данных; блок из 0 записей — конец файла.
+//   В версии 1 CRC32 считался только по сжатым данным; такие файлы по-прежнему читаются.
+// Запись: байт типа (TaskType.ordinal), байт флагов, varint id, байт статуса (NO_STATUS — нет),
+//   заголовок и описание — varint длина + UTF-8, у подзадачи varint id эпика,
+//   начало — zigzag varint секунд от эпохи (UTC), длительность — zigzag varint секунд;
+//   ненулевые доли секунды — varint наносекунд после каждого из них (флаги FLAG_START_NANOS, FLAG_DURATION_NANOS).
+public class SnapshotWriter implements AutoCloseable {
+    static final int MAGIC = 0x544D534E;
+    static final byte VERSION = 2;
+    static final int FLAG_TITLE = 1;
+    static final int FLAG_DESCRIPTION = 2;
+    static final int FLAG_START = 4;
+    static final int FLAG_DURATION = 8;
+    static final int FLAG_START_NANOS = 16;
+    static final int FLAG_DURATION_NANOS = 32;
+    static final int NO_STATUS = 0xFF;
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final DataOutputStream out;
+    private final CRC32 crc = new CRC32();
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private byte[] block = new byte[BLOCK_SIZE + 1024];
+    private byte[] compressed = new byte[BLOCK_SIZE];
+    private final byte[] header = new byte[30];
+    private int blockSize;
+    private int blockRecords;
+
+    public SnapshotWriter(Path file) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    public static boolean isSnapshot(Path file) throws IOException {
+        try (var in = Files.newInputStream(file)) {
+            byte[] magic = in.readNBytes(4);
+            return magic.length == 4
+                    && ((magic[0] & 0xFF) << 24 | (magic[1] & 0xFF) << 16 | (magic[2] & 0xFF) << 8 | magic[3] & 0xFF) == MAGIC;
+        }
+    }
+
+    public void write(Task task) throws IOException {
+        int type = task instanceof Subtask ? 2 : task instanceof Epic ? 1 : 0;
+        int flags = (task.getTitle() != null ? FLAG_TITLE : 0)
+                | (task.getDescription() != null ? FLAG_DESCRIPTION : 0);
+        if (type != 1) {
+            flags |= (task.getStartTime() != null ? FLAG_START : 0) | (task.getDuration() != null ? FLAG_DURATION : 0);
+            flags |= (task.getStartTime() != null && task.getStartTime().getNano() != 0 ? FLAG_START_NANOS : 0)
+                    | (task.getDuration() != null && task.getDuration().getNano() != 0 ? FLAG_DURATION_NANOS : 0);
+        }
+        putByte(type);
+        putByte(flags);
+        putVarLong(task.getId());
+        putByte(task.getStatus() == null ? NO_STATUS : task.getStatus().ordinal());
+        if (task.getTitle() != null) putString(task.getTitle());
+        if (task.getDescription() != null) putString(task.getDescription());
+        if (task instanceof Subtask subtask) putVarLong(subtask.getEpicId());
+        if ((flags & FLAG_START) != 0) putVarLong(zigzag(task.getStartTime().toEpochSecond(ZoneOffset.UTC)));
+        if ((flags & FLAG_START_NANOS) != 0) putVarLong(task.getStartTime().getNano());
+        if ((flags & FLAG_DURATION) != 0) putVarLong(zigzag(task.getDuration().getSeconds()));
+        if ((flags & FLAG_DURATION_NANOS) != 0) putVarLong(task.getDuration().getNano());
+        blockRecords++;
+        if (blockSize >= BLOCK_SIZE) {
+            flushBlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBlock();
+            // пустой блок отличает целый файл от обрезанного
+            writeBlock();
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockRecords == 0) return;
+        writeBlock();
+    }
+
+    private void writeBlock() throws IOException {
+        int compressedSize = 0;
+        if (blockSize > 0) {
+            deflater.reset();
+            deflater.setInput(block, 0, blockSize);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (compressedSize == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                compressedSize += deflater.deflate(compressed, compressedSize, compressed.length - compressedSize);
+            }
+        }
+        int headerSize = putVarLong(header, 0, blockRecords);
+        headerSize = putVarLong(header, headerSize, blockSize);
+        headerSize = putVarLong(header, headerSize, compressedSize);
+        out.write(header, 0, headerSize);
+        out.write(compressed, 0, compressedSize);
+        crc.reset();
+        crc.update(header, 0, headerSize);
+        crc.update(compressed, 0, compressedSize);
+        out.writeInt((int) crc.getValue());
+        blockSize = 0;
+        blockRecords = 0;
+    }
+
+    private void putByte(int value) {
+        ensure(1);
+        block[blockSize++] = (byte) value;
+    }
+
+    private void putVarLong(long value) {
+        ensure(10);
+        blockSize = putVarLong(block, blockSize, value);
+    }
+
+    private static int putVarLong(byte[] target, int offset, long value) {
+        while ((value & ~0x7FL) != 0) {
+            target[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[offset++] = (byte) value;
+        return offset;
+    }
+
+    private void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarLong(bytes.length);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, block, blockSize, bytes.length);
+        blockSize += bytes.length;
+    }
+
+    private void ensure(int extra) {
+        if (blockSize + extra > block.length) {
+            block = Arrays.copyOf(block, Math.max(blockSize + extra, block.length * 2));
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
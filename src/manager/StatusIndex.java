@@ -0,0 +1,44 @@
+package manager;
+
+import model.TaskStatus;
+import utils.IntSet;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// id задач одного типа по статусам; статус запоминается при индексации, поэтому корзина меняется только через put.
+public class StatusIndex {
+    private final Map<TaskStatus, IntSet> idsByStatus = new EnumMap<>(TaskStatus.class);
+
+    public StatusIndex() {
+        for (TaskStatus status : TaskStatus.values()) {
+            idsByStatus.put(status, new IntSet());
+        }
+    }
+
+    public void put(int id, TaskStatus status) {
+        if (status != null && idsByStatus.get(status).contains(id)) return;
+        remove(id);
+        if (status != null) {
+            idsByStatus.get(status).add(id);
+        }
+    }
+
+    public void remove(int id) {
+        for (IntSet ids : idsByStatus.values()) {
+            if (ids.remove(id)) return;
+        }
+    }
+
+    public void clear() {
+        idsByStatus.values().forEach(IntSet::clear);
+    }
+
+    public int count(TaskStatus status) {
+        return idsByStatus.get(status).size();
+    }
+
+    public int[] ids(TaskStatus status) {
+        return idsByStatus.get(status).toArray();
+    }
+}
@@ -0,0 +1,361 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Подзадачи разных эпиков меняются параллельно под полосой своего эпика; остальное — под эксклюзивной блокировкой.
+// Порядок захвата: structure -> полоса -> shared.
+public class StripedTaskManager extends InMemoryTaskManager {
+    private final ReentrantReadWriteLock structure = new ReentrantReadWriteLock();
+    private final Lock[] stripes;
+    private final Object shared = new Object();
+
+    public StripedTaskManager(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive: " + stripeCount);
+        }
+        stripes = new Lock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    private Lock stripeOf(int epicId) {
+        int hash = epicId * 0x9E3779B9;
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
+
+    private <R> R withLocks(Lock first, Lock second, Supplier<R> action) {
+        first.lock();
+        try {
+            second.lock();
+            try {
+                return action.get();
+            } finally {
+                second.unlock();
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+
+    private <R> R read(Supplier<R> action) {
+        structure.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    private <R> R readShared(Supplier<R> action) {
+        return read(() -> underShared(action));
+    }
+
+    private <R> R underShared(Supplier<R> action) {
+        synchronized (shared) {
+            return action.get();
+        }
+    }
+
+    private void write(Runnable action) {
+        structure.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void registerSubtask(Subtask subtask) {
+        synchronized (shared) {
+            super.registerSubtask(subtask);
+        }
+    }
+
+    @Override
+    protected Subtask replaceSubtask(Subtask subtask) {
+        synchronized (shared) {
+            return super.replaceSubtask(subtask);
+        }
+    }
+
+    @Override
+    protected Subtask unregisterSubtask(int id) {
+        synchronized (shared) {
+            return super.unregisterSubtask(id);
+        }
+    }
+
+    @Override
+    protected void applyRollup(Epic epic) {
+        synchronized (shared) {
+            super.applyRollup(epic);
+        }
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask) {
+        if (subtask == null) return;
+        withLocks(structure.readLock(), stripeOf(subtask.getEpicId()), () -> {
+            super.createSubtask(subtask);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateSubtaskById(Subtask subtask) {
+        if (subtask == null) return;
+        // перенос подзадачи между эпиками трогает две полосы, поэтому идёт под эксклюзивной блокировкой
+        boolean sameEpic = read(() -> {
+            Subtask current = currentSubtask(subtask.getId());
+            if (current == null) return true;
+            if (current.getEpicId() != subtask.getEpicId()) return false;
+            stripeOf(subtask.getEpicId()).lock();
+            try {
+                super.updateSubtaskById(subtask);
+            } finally {
+                stripeOf(subtask.getEpicId()).unlock();
+            }
+            return true;
+        });
+        if (!sameEpic) {
+            write(() -> super.updateSubtaskById(subtask));
+        }
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        read(() -> {
+            Subtask current = currentSubtask(id);
+            if (current == null) {
+                unregisterSubtask(id);
+                return null;
+            }
+            stripeOf(current.getEpicId()).lock();
+            try {
+                super.deleteSubtaskById(id);
+            } finally {
+                stripeOf(current.getEpicId()).unlock();
+            }
+            return null;
+        });
+    }
+
+    // эпик меняется на месте под своей полосой, поэтому отдаётся копия, снятая под ней же
+    @SuppressWarnings("unchecked")
+    private <T extends Task> List<T> withEpicCopies(List<T> tasks) {
+        List<T> result = new ArrayList<>(tasks.size());
+        for (T task : tasks) {
+            result.add(task instanceof Epic epic ? (T) epicCopy(epic) : task);
+        }
+        return result;
+    }
+
+    private Epic epicCopy(Epic epic) {
+        Lock stripe = stripeOf(epic.getId());
+        stripe.lock();
+        try {
+            return epic.copy();
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private Subtask currentSubtask(int id) {
+        synchronized (shared) {
+            return subtasks.get(id);
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksOfEpic(int id) {
+        return withLocks(structure.readLock(), stripeOf(id), () -> {
+            synchronized (shared) {
+                return super.getSubtasksOfEpic(id);
+            }
+        });
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return read(() -> withEpicCopies(underShared(super::getHistory)));
+    }
+
+    @Override
+    public List<Task> getListOfTasks() {
+        return read(super::getListOfTasks);
+    }
+
+    @Override
+    public List<Epic> getListOfEpics() {
+        return read(() -> withEpicCopies(super.getListOfEpics()));
+    }
+
+    @Override
+    public List<Subtask> getListOfSubtasks() {
+        return readShared(super::getListOfSubtasks);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return readShared(super::getPrioritizedTasks);
+    }
+
+    @Override
+    public List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to) {
+        return readShared(() -> super.getTasksBetween(from, to));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration duration) {
+        return readShared(() -> super.findFreeSlot(after, duration));
+    }
+
+    @Override
+    public List<TaskConflict> getConflicts() {
+        return readShared(super::getConflicts);
+    }
+
+    @Override
+    public ChangeLog.Changes getChangesSince(String token) {
+        return readShared(() -> super.getChangesSince(token));
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return readShared(() -> super.getTaskById(id));
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return withLocks(structure.readLock(), stripeOf(id), () -> {
+            synchronized (shared) {
+                Epic epic = super.getEpicById(id);
+                return epic == null ? null : epic.copy();
+            }
+        });
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        return readShared(() -> super.getSubtaskById(id));
+    }
+
+    @Override
+    public void validateNoOverlap(Task task) {
+        readShared(() -> {
+            super.validateNoOverlap(task);
+            return null;
+        });
+    }
+
+    @Override
+    public void printAllTasks() {
+        readShared(() -> {
+            super.printAllTasks();
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        write(super::deleteAllTasks);
+    }
+
+    @Override
+    public void createTask(Task task) {
+        write(() -> super.createTask(task));
+    }
+
+    @Override
+    public void updateTaskById(Task task) {
+        write(() -> super.updateTaskById(task));
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        write(() -> super.deleteTaskById(id));
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        write(super::deleteAllEpics);
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        write(() -> super.createEpic(epic));
+    }
+
+    @Override
+    public void updateEpicById(Epic newEpic) {
+        write(() -> super.updateEpicById(newEpic));
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        write(() -> super.deleteEpicById(id));
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        write(super::deleteAllSubtasks);
+    }
+
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        write(() -> super.applyBatch(batch));
+    }
+
+    @Override
+    public TaskPage<Task> getTasksPage(int limit, String cursor, TaskStatus status) {
+        return read(() -> super.getTasksPage(limit, cursor, status));
+    }
+
+    @Override
+    public TaskPage<Epic> getEpicsPage(int limit, String cursor, TaskStatus status) {
+        return read(() -> {
+            TaskPage<Epic> page = super.getEpicsPage(limit, cursor, status);
+            return new TaskPage<>(withEpicCopies(page.items()), page.nextCursor());
+        });
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasksPage(int limit, String cursor, TaskStatus status) {
+        return readShared(() -> super.getSubtasksPage(limit, cursor, status));
+    }
+
+    @Override
+    public TaskPage<Task> getPrioritizedPage(int limit, String cursor, TaskStatus status) {
+        return readShared(() -> super.getPrioritizedPage(limit, cursor, status));
+    }
+
+    @Override
+    public int[] getIdsByStatus(TaskType type, TaskStatus status) {
+        return readShared(() -> super.getIdsByStatus(type, status));
+    }
+
+    @Override
+    public int getCountByStatus(TaskType type, TaskStatus status) {
+        return readShared(() -> super.getCountByStatus(type, status));
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        return read(() -> withEpicCopies(underShared(() -> super.search(query, limit))));
+    }
+}
@@ -0,0 +1,100 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+// Набор изменений, который TaskManager.applyBatch применяет целиком или не применяет вовсе.
+public class TaskBatch {
+    public enum Action {
+        CREATE,
+        UPDATE,
+        DELETE,
+        // меняются только startTime и duration; задача должна существовать и ещё не иметь startTime
+        RESCHEDULE
+    }
+
+    public record Operation(Action action, TaskType type, Task task, int id, Epic epic) {
+    }
+
+    private final List<Operation> operations = new ArrayList<>();
+
+    public TaskBatch createTask(Task task) {
+        return add(Action.CREATE, TaskType.TASK, task);
+    }
+
+    public TaskBatch updateTask(Task task) {
+        return add(Action.UPDATE, TaskType.TASK, task);
+    }
+
+    public TaskBatch deleteTask(int id) {
+        return delete(TaskType.TASK, id);
+    }
+
+    public TaskBatch createEpic(Epic epic) {
+        return add(Action.CREATE, TaskType.EPIC, epic);
+    }
+
+    public TaskBatch updateEpic(Epic epic) {
+        return add(Action.UPDATE, TaskType.EPIC, epic);
+    }
+
+    public TaskBatch deleteEpic(int id) {
+        return delete(TaskType.EPIC, id);
+    }
+
+    public TaskBatch createSubtask(Subtask subtask) {
+        return add(Action.CREATE, TaskType.SUBTASK, subtask);
+    }
+
+    // id эпика появится только при применении пакета, поэтому epicId подзадачи не используется
+    public TaskBatch createSubtask(Subtask subtask, Epic epic) {
+        operations.add(new Operation(Action.CREATE, TaskType.SUBTASK, Objects.requireNonNull(subtask), subtask.getId(),
+                Objects.requireNonNull(epic)));
+        return this;
+    }
+
+    public TaskBatch updateSubtask(Subtask subtask) {
+        return add(Action.UPDATE, TaskType.SUBTASK, subtask);
+    }
+
+    public TaskBatch deleteSubtask(int id) {
+        return delete(TaskType.SUBTASK, id);
+    }
+
+    public TaskBatch reschedule(Task task) {
+        if (task instanceof Epic) {
+            throw new IllegalArgumentException("model.Epic time is derived from its subtasks");
+        }
+        return add(Action.RESCHEDULE, task instanceof Subtask ? TaskType.SUBTASK : TaskType.TASK, task);
+    }
+
+    public List<Operation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    public int size() {
+        return operations.size();
+    }
+
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    private TaskBatch add(Action action, TaskType type, Task task) {
+        Objects.requireNonNull(task);
+        operations.add(new Operation(action, type, task, task.getId(), null));
+        return this;
+    }
+
+    private TaskBatch delete(TaskType type, int id) {
+        operations.add(new Operation(Action.DELETE, type, null, id, null));
+        return this;
+    }
+}
@@ -0,0 +1,7 @@
+package manager;
+
+import java.time.LocalDateTime;
+
+// Пара пересекающихся задач расписания; firstId начинается не позже secondId, from и to — общая часть интервалов.
+public record TaskConflict(int firstId, int secondId, LocalDateTime from, LocalDateTime to) {
+}
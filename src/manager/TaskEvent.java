@@ -0,0 +1,18 @@
+package manager;
+
+import model.Task;
+import model.TaskType;
+
+// Изменение в менеджере; пропуск номера version означает потерянное событие. task — копия, для удаления null.
+public record TaskEvent(Kind kind, long version, TaskType type, int id, Task task) {
+    public enum Kind {
+        TASK_CREATED,
+        TASK_UPDATED,
+        TASK_DELETED,
+        EPIC_ROLLED_UP
+    }
+
+    public long taskKey() {
+        return ((long) type.ordinal() << 32) | (id & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,13 @@
+package manager;
+
+import java.util.List;
+
+// Синхронный подписчик вызывается внутри операции записи; медленную обработку — в AsyncTaskListener.
+@FunctionalInterface
+public interface TaskListener {
+    void onEvent(TaskEvent event);
+
+    default void onEvents(List<TaskEvent> events) {
+        events.forEach(this::onEvent);
+    }
+}
@@ -3,7 +3,11 @@ package manager;
 import model.Epic;
 import model.Subtask;
 import model.Task;
+import model.TaskStatus;
+import model.TaskType;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TaskManager {
@@ -50,7 +54,35 @@ public interface TaskManager {
 
     void printAllTasks();
 
+    void addListener(TaskListener listener);
+
+    void removeListener(TaskListener listener);
+
+    ChangeLog.Changes getChangesSince(String token);
+
     List<Task> getPrioritizedTasks();
 
+    List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to);
+
+    LocalDateTime findFreeSlot(LocalDateTime after, Duration duration);
+
+    List<TaskConflict> getConflicts();
+
     void validateNoOverlap(Task task);
+
+    void applyBatch(TaskBatch batch);
+
+    TaskPage<Task> getTasksPage(int limit, String cursor, TaskStatus status);
+
+    TaskPage<Epic> getEpicsPage(int limit, String cursor, TaskStatus status);
+
+    TaskPage<Subtask> getSubtasksPage(int limit, String cursor, TaskStatus status);
+
+    TaskPage<Task> getPrioritizedPage(int limit, String cursor, TaskStatus status);
+
+    int[] getIdsByStatus(TaskType type, TaskStatus status);
+
+    int getCountByStatus(TaskType type, TaskStatus status);
+
+    List<Task> search(String query, int limit);
 }
@@ -0,0 +1,7 @@
+package manager;
+
+import java.util.List;
+
+// Страница списка; nextCursor == null, если дальше ничего нет.
+public record TaskPage<T>(List<T> items, String nextCursor) {
+}
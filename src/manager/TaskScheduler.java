@@ -0,0 +1,197 @@
+package manager;
+
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+// Раскладывает задачи без startTime по самым ранним подходящим промежуткам расписания (first fit).
+public class TaskScheduler {
+    private final TaskManager manager;
+    private LocalDateTime from = LocalDateTime.now();
+    private Duration defaultDuration = Duration.ofMinutes(30);
+    private LocalTime workStart;
+    private LocalTime workEnd;
+    private Comparator<? super Task> priority = Comparator.comparingInt(Task::getId);
+
+    public record Plan(List<Task> placed, List<Task> unplaced) {
+        public TaskBatch toBatch() {
+            TaskBatch batch = new TaskBatch();
+            for (Task task : placed) {
+                batch.reschedule(task);
+            }
+            return batch;
+        }
+    }
+
+    public TaskScheduler(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    public TaskScheduler from(LocalDateTime from) {
+        this.from = Objects.requireNonNull(from);
+        return this;
+    }
+
+    public TaskScheduler defaultDuration(Duration duration) {
+        requirePositive(duration);
+        this.defaultDuration = duration;
+        return this;
+    }
+
+    public TaskScheduler workingHours(LocalTime start, LocalTime end) {
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Working hours must end after they start: %s - %s".formatted(start, end));
+        }
+        this.workStart = start;
+        this.workEnd = end;
+        return this;
+    }
+
+    public TaskScheduler priority(Comparator<? super Task> priority) {
+        this.priority = Objects.requireNonNull(priority);
+        return this;
+    }
+
+    // задачи менеджера не меняются: в план попадают копии с назначенным временем
+    public Plan plan() {
+        List<Task> pending = new ArrayList<>();
+        for (Task task : manager.getListOfTasks()) {
+            if (isUnscheduled(task)) pending.add(task);
+        }
+        for (Subtask subtask : manager.getListOfSubtasks()) {
+            if (isUnscheduled(subtask)) pending.add(subtask);
+        }
+        pending.sort(priority);
+
+        Gaps gaps = new Gaps();
+        LocalDateTime tail = from;
+        for (Task task : manager.getPrioritizedTasks()) {
+            LocalDateTime end = task.getEndTime() != null ? task.getEndTime() : task.getStartTime();
+            if (!end.isAfter(from)) continue;
+            if (task.getStartTime().isAfter(tail)) {
+                addGap(gaps, tail, task.getStartTime());
+            }
+            if (end.isAfter(tail)) {
+                tail = end;
+            }
+        }
+        gaps.build();
+
+        List<Task> placed = new ArrayList<>(pending.size());
+        List<Task> unplaced = new ArrayList<>();
+        for (Task task : pending) {
+            Duration duration = task.getDuration() != null && !task.getDuration().isZero()
+                    ? task.getDuration() : defaultDuration;
+            if (workStart != null && Duration.between(workStart, workEnd).compareTo(duration) < 0) {
+                unplaced.add(task);
+                continue;
+            }
+            LocalDateTime start = gaps.take(duration);
+            if (start == null) {
+                start = alignToWorkingHours(tail, duration);
+                tail = start.plus(duration);
+            }
+            placed.add(copyWithTime(task, start, duration));
+        }
+        return new Plan(placed, unplaced);
+    }
+
+    private boolean isUnscheduled(Task task) {
+        return task.getStartTime() == null && task.getStatus() != TaskStatus.DONE;
+    }
+
+    private void addGap(Gaps gaps, LocalDateTime start, LocalDateTime end) {
+        if (workStart == null) {
+            gaps.add(start, end);
+            return;
+        }
+        for (LocalDate day = start.toLocalDate(); !day.atTime(workStart).isAfter(end); day = day.plusDays(1)) {
+            LocalDateTime windowStart = max(start, day.atTime(workStart));
+            LocalDateTime windowEnd = min(end, day.atTime(workEnd));
+            if (windowStart.isBefore(windowEnd)) {
+                gaps.add(windowStart, windowEnd);
+            }
+        }
+    }
+
+    private LocalDateTime alignToWorkingHours(LocalDateTime time, Duration duration) {
+        if (workStart == null) return time;
+        LocalDateTime start = max(time, time.toLocalDate().atTime(workStart));
+        if (start.plus(duration).isAfter(start.toLocalDate().atTime(workEnd))) {
+            start = start.toLocalDate().plusDays(1).atTime(workStart);
+        }
+        return start;
+    }
+
+    private static Task copyWithTime(Task task, LocalDateTime start, Duration duration) {
+        if (task instanceof Subtask subtask) {
+            return new Subtask(subtask.getId(), subtask.getTitle(), subtask.getDescription(), subtask.getStatus(),
+                    subtask.getEpicId(), start, duration);
+        }
+        return new Task(task.getId(), task.getTitle(), task.getDescription(), task.getStatus(), start, duration);
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static void requirePositive(Duration duration) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Duration must be positive: " + duration);
+        }
+    }
+
+    // в узлах — максимальный остаток длины, чтобы за один спуск найти самый левый подходящий промежуток
+    private static class Gaps {
+        private final List<LocalDateTime> starts = new ArrayList<>();
+        private final List<LocalDateTime> ends = new ArrayList<>();
+        private long[] tree;
+        private int leaves;
+
+        void add(LocalDateTime start, LocalDateTime end) {
+            starts.add(start);
+            ends.add(end);
+        }
+
+        void build() {
+            leaves = 1;
+            while (leaves < starts.size()) {
+                leaves <<= 1;
+            }
+            tree = new long[2 * leaves];
+            for (int i = 0; i < starts.size(); i++) {
+                tree[leaves + i] = Duration.between(starts.get(i), ends.get(i)).toSeconds();
+            }
+            for (int node = leaves - 1; node > 0; node--) {
+                tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+
+        LocalDateTime take(Duration duration) {
+            long needed = duration.toSeconds() + (duration.getNano() > 0 ? 1 : 0);
+            if (starts.isEmpty() || tree[1] < needed) return null;
+            int node = 1;
+            while (node < leaves) {
+                node = tree[2 * node] >= needed ? 2 * node : 2 * node + 1;
+            }
+            int gap = node - leaves;
+            LocalDateTime start = starts.get(gap);
+            starts.set(gap, start.plus(duration));
+            tree[node] = Duration.between(starts.get(gap), ends.get(gap)).toSeconds();
+            for (node >>= 1; node > 0; node >>= 1) {
+                tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+            }
+            return start;
+        }
+    }
+}
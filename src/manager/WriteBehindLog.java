@@ -0,0 +1,260 @@
+package manager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Журнал с отложенной записью: один поток пишет всё накопившееся одним write (group commit).
+// Ошибка записи выбрасывается из следующего append, flush или checkFailure.
+public class WriteBehindLog implements AutoCloseable {
+    private final Path file;
+    private final FsyncPolicy policy;
+    private final BlockingQueue<Object> queue;
+    private final AtomicLong commits = new AtomicLong();
+    private Thread writer;
+    // одновременные close не должны останавливать поток, запущенный заново после первого из них
+    private final Object closeLock = new Object();
+    private volatile IOException failure;
+
+    // EVERY_COMMIT — fsync после каждой группы, every(interval) — не реже раза в interval, NEVER — никогда
+    public record FsyncPolicy(Duration interval) {
+        public static final FsyncPolicy EVERY_COMMIT = new FsyncPolicy(Duration.ZERO);
+        public static final FsyncPolicy NEVER = new FsyncPolicy(null);
+
+        public FsyncPolicy {
+            if (interval != null && interval.isNegative()) {
+                throw new IllegalArgumentException("Fsync interval must not be negative: " + interval);
+            }
+        }
+
+        public static FsyncPolicy every(Duration interval) {
+            if (interval == null || interval.isNegative() || interval.isZero()) {
+                throw new IllegalArgumentException("Fsync interval must be positive: " + interval);
+            }
+            return new FsyncPolicy(interval);
+        }
+    }
+
+    // FLUSH — только дописать, CLOSE_FILE — ещё и закрыть файл, STOP — закрыть файл и завершить поток записи
+    private enum BarrierKind { FLUSH, CLOSE_FILE, STOP }
+
+    private record Barrier(BarrierKind kind, CountDownLatch done) {
+    }
+
+    public WriteBehindLog(Path file, int capacity, FsyncPolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + capacity);
+        }
+        this.file = file;
+        this.policy = policy;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public void append(String record) {
+        checkFailure();
+        try {
+            enqueue(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Запись в журнал прервана");
+        }
+    }
+
+    public void flush() {
+        await(BarrierKind.FLUSH);
+    }
+
+    // после flush файл закрыт; следующий append откроет его снова
+    public void closeFile() {
+        await(BarrierKind.CLOSE_FILE);
+    }
+
+    // после closeFile поток записи завершён; следующий append запустит его снова
+    @Override
+    public void close() {
+        synchronized (closeLock) {
+            Thread stopped;
+            synchronized (this) {
+                stopped = writer;
+            }
+            if (stopped == null) {
+                checkFailure();
+                return;
+            }
+            Barrier barrier = new Barrier(BarrierKind.STOP, new CountDownLatch(1));
+            try {
+                enqueue(barrier);
+                barrier.done().await();
+                stopped.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ManagerSaveException("Закрытие журнала прервано");
+            }
+            synchronized (this) {
+                writer = null;
+                // запись, добавленная, пока поток останавливался, не должна остаться в очереди без писателя
+                if (!queue.isEmpty()) {
+                    startWriter();
+                }
+            }
+        }
+        checkFailure();
+    }
+
+    public long getCommitCount() {
+        return commits.get();
+    }
+
+    private void await(BarrierKind kind) {
+        Barrier barrier = new Barrier(kind, new CountDownLatch(1));
+        try {
+            synchronized (this) {
+                if (writer == null) {
+                    checkFailure();
+                    return;
+                }
+            }
+            enqueue(barrier);
+            barrier.done().await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Запись в журнал прервана");
+        }
+        checkFailure();
+    }
+
+    // проверка после put ловит поток, остановленный, пока запись ждала места в очереди
+    private void enqueue(Object item) throws InterruptedException {
+        synchronized (this) {
+            startWriter();
+        }
+        queue.put(item);
+        synchronized (this) {
+            startWriter();
+        }
+    }
+
+    // вызывается под монитором журнала
+    private void startWriter() {
+        if (writer == null) {
+            writer = new Thread(this::run, "write-behind-" + file.getFileName());
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    public void checkFailure() {
+        if (failure != null) {
+            throw new ManagerSaveException("Не удалось записать задачи в файл: " + failure.getMessage());
+        }
+    }
+
+    private void run() {
+        List<Object> group = new ArrayList<>();
+        StringBuilder pending = new StringBuilder();
+        FileChannel channel = null;
+        long lastSync = System.nanoTime();
+        boolean dirty = false;
+        boolean stop = false;
+        try {
+            while (!stop) {
+                Object first = dirty && policy.interval() != null
+                        ? queue.poll(remainingNanos(lastSync), TimeUnit.NANOSECONDS)
+                        : queue.take();
+                if (first != null) {
+                    group.add(first);
+                    queue.drainTo(group);
+                }
+                for (Object item : group) {
+                    if (item instanceof String record) {
+                        pending.append(record);
+                        continue;
+                    }
+                    Barrier barrier = (Barrier) item;
+                    channel = write(channel, pending);
+                    if (channel != null && policy.interval() != null) {
+                        sync(channel);
+                        dirty = false;
+                        lastSync = System.nanoTime();
+                    }
+                    if (barrier.kind() != BarrierKind.FLUSH) {
+                        closeQuietly(channel);
+                        channel = null;
+                    }
+                    stop |= barrier.kind() == BarrierKind.STOP;
+                    barrier.done().countDown();
+                }
+                group.clear();
+                if (pending.length() > 0) {
+                    channel = write(channel, pending);
+                    dirty = true;
+                }
+                if (dirty && channel != null && policy.interval() != null
+                        && System.nanoTime() - lastSync >= policy.interval().toNanos()) {
+                    sync(channel);
+                    dirty = false;
+                    lastSync = System.nanoTime();
+                }
+            }
+            if (dirty && channel != null && policy.interval() != null) {
+                sync(channel);
+            }
+            closeQuietly(channel);
+        } catch (InterruptedException e) {
+            closeQuietly(channel);
+        }
+    }
+
+    private long remainingNanos(long lastSync) {
+        return Math.max(0, policy.interval().toNanos() - (System.nanoTime() - lastSync));
+    }
+
+    // после ошибки записи записи отбрасываются, чтобы очередь не заблокировала производителей
+    private FileChannel write(FileChannel channel, StringBuilder pending) {
+        if (pending.length() == 0) return channel;
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toString().getBytes(StandardCharsets.UTF_8));
+        pending.setLength(0);
+        if (failure != null) return channel;
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            commits.incrementAndGet();
+        } catch (IOException e) {
+            failure = e;
+        }
+        return channel;
+    }
+
+    private void sync(FileChannel channel) {
+        if (failure != null) return;
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+        }
+    }
+}
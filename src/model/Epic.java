@@ -1,33 +1,66 @@
 package model;
 
+import utils.IntSet;
+
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 public class Epic extends Task {
-    private List<Integer> subtaskIds;
+    private IntSet subtaskIds;
     private LocalDateTime endTime;
+    private transient EpicRollup rollup;
 
     public Epic(String title, String description) {
         super(title, description, TaskStatus.NEW, null, null);
-        subtaskIds = new ArrayList<>();
+        subtaskIds = new IntSet();
     }
 
     public Epic(int id, String title, String description) {
         super(id, title, description, TaskStatus.NEW, null, null);
-        subtaskIds = new ArrayList<>();
+        subtaskIds = new IntSet();
+    }
+
+    // сводка не копируется: копия получит её лениво, как эпик из JSON
+    protected Epic(Epic epic) {
+        super(epic);
+        subtaskIds = new IntSet(epic.getSubtaskIds().size());
+        epic.getSubtaskIds().forEach(subtaskIds::add);
+        endTime = epic.endTime;
+    }
+
+    @Override
+    public Epic copy() {
+        return new Epic(this);
     }
 
-    public List<Integer> getSubtaskIds() {
+    public IntSet getSubtaskIds() {
+        if (subtaskIds == null) {
+            subtaskIds = new IntSet();
+        }
         return subtaskIds;
     }
 
-    public void setSubtaskIds(List<Integer> subtaskIds) {
+    public void setSubtaskIds(IntSet subtaskIds) {
         this.subtaskIds = subtaskIds;
     }
 
     public void addSubtask(int id) {
-        subtaskIds.add(id);
+        getSubtaskIds().add(id);
+    }
+
+    public void removeSubtask(int id) {
+        getSubtaskIds().remove(id);
+    }
+
+    // сводка не сериализуется: эпик из JSON получает её лениво
+    public EpicRollup getRollup() {
+        if (rollup == null) {
+            rollup = new EpicRollup();
+        }
+        return rollup;
+    }
+
+    public void setRollup(EpicRollup rollup) {
+        this.rollup = rollup;
     }
 
     @Override
@@ -0,0 +1,77 @@
+package model;
+
+import utils.IntObjectMap;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+public class EpicRollup {
+    private final IntObjectMap<Contribution> contributions = new IntObjectMap<>();
+    private final int[] statusCounts = new int[TaskStatus.values().length];
+    private final TreeMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+
+    // вклад подзадачи запоминается, чтобы при удалении вычесть ровно то, что было добавлено
+    private record Contribution(TaskStatus status, LocalDateTime startTime, LocalDateTime endTime) {
+    }
+
+    public void put(Subtask subtask) {
+        remove(subtask.getId());
+        Contribution contribution = new Contribution(subtask.getStatus(), subtask.getStartTime(), subtask.getEndTime());
+        contributions.put(subtask.getId(), contribution);
+        if (contribution.status() != null) {
+            statusCounts[contribution.status().ordinal()]++;
+        }
+        increment(startTimes, contribution.startTime());
+        increment(endTimes, contribution.endTime());
+    }
+
+    public void remove(int subtaskId) {
+        Contribution contribution = contributions.remove(subtaskId);
+        if (contribution == null) return;
+        if (contribution.status() != null) {
+            statusCounts[contribution.status().ordinal()]--;
+        }
+        decrement(startTimes, contribution.startTime());
+        decrement(endTimes, contribution.endTime());
+    }
+
+    public void clear() {
+        contributions.clear();
+        Arrays.fill(statusCounts, 0);
+        startTimes.clear();
+        endTimes.clear();
+    }
+
+    public TaskStatus getStatus() {
+        int size = contributions.size();
+        if (size == 0 || statusCounts[TaskStatus.NEW.ordinal()] == size) {
+            return TaskStatus.NEW;
+        }
+        if (statusCounts[TaskStatus.DONE.ordinal()] == size) {
+            return TaskStatus.DONE;
+        }
+        return TaskStatus.IN_PROGRESS;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTimes.isEmpty() ? null : startTimes.firstKey();
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTimes.isEmpty() ? null : endTimes.lastKey();
+    }
+
+    private static void increment(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+        if (time != null) {
+            times.merge(time, 1, Integer::sum);
+        }
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+        if (time != null) {
+            times.computeIfPresent(time, (key, count) -> count == 1 ? null : count - 1);
+        }
+    }
+}
@@ -26,6 +26,16 @@ public class Subtask extends Task {
         this.epicId = epicId;
     }
 
+    protected Subtask(Subtask subtask) {
+        super(subtask);
+        this.epicId = subtask.epicId;
+    }
+
+    @Override
+    public Subtask copy() {
+        return new Subtask(this);
+    }
+
     public int getEpicId() {
         return epicId;
     }
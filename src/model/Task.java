@@ -34,6 +34,15 @@ public class Task {
         this.id = id;
     }
 
+    protected Task(Task task) {
+        this(task.id, task.title, task.description, task.status, task.startTime, task.duration);
+    }
+
+    // независимая копия: изменения оригинала менеджером её не затрагивают
+    public Task copy() {
+        return new Task(this);
+    }
+
     public int getId() {
         return id;
     }
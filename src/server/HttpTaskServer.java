@@ -1,8 +1,12 @@
 package server;
 
 import com.sun.net.httpserver.HttpServer;
+import manager.BoardRegistry;
+import manager.ConcurrentTaskManager;
+import manager.FileBackedTaskManager;
 import manager.Managers;
 import manager.TaskManager;
+import manager.WriteBehindLog;
 import model.Epic;
 import model.Subtask;
 import model.Task;
@@ -11,12 +15,26 @@ import server.handler.*;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class HttpTaskServer {
+    private static final int REQUEST_THREADS = 32;
     private final HttpServer httpServer;
     private final TaskManager manager;
+    // /events держит поток на подключение, поэтому пул больше, чем нужно обычным запросам
+    // Пул ограничен: подключений /events не больше EventsHandler.MAX_CONNECTIONS, и сверх них
+    private final ExecutorService executor =
+            Executors.newFixedThreadPool(REQUEST_THREADS + EventsHandler.MAX_CONNECTIONS);
 
     public HttpTaskServer(TaskManager manager) {
+        this(manager, null);
+    }
+
+    // boards == null — сервер одной доски без маршрутов /boards/{id}/...
+    public HttpTaskServer(TaskManager manager, BoardRegistry boards) {
         try {
             httpServer = HttpServer.create(new InetSocketAddress(8080), 0);
         } catch (IOException e) {
@@ -28,10 +46,27 @@ public class HttpTaskServer {
         httpServer.createContext(EpicHandler.PATH, new EpicHandler(manager));
         httpServer.createContext(HistoryHandler.PATH, new HistoryHandler(manager));
         httpServer.createContext(PrioritizedHandler.PATH, new PrioritizedHandler(manager));
+        httpServer.createContext(StatsHandler.PATH, new StatsHandler(manager));
+        httpServer.createContext(SearchHandler.PATH, new SearchHandler(manager));
+        httpServer.createContext(FreeSlotHandler.PATH, new FreeSlotHandler(manager));
+        httpServer.createContext(ScheduleHandler.PATH, new ScheduleHandler(manager));
+        httpServer.createContext(ConflictsHandler.PATH, new ConflictsHandler(manager));
+        httpServer.createContext(ChangesHandler.PATH, new ChangesHandler(manager));
+        httpServer.createContext(EventsHandler.PATH, new EventsHandler(manager));
+        if (boards != null) {
+            httpServer.createContext(BoardsHandler.PATH, new BoardsHandler(boards));
+        }
+        httpServer.setExecutor(executor);
     }
 
     public static void main(String[] args) {
-        HttpTaskServer httpTaskServer = new HttpTaskServer(Managers.getFileBacked());
+        BoardRegistry boards = BoardRegistry.open(Paths.get("resources/boards"), Duration.ofMinutes(10), 1000);
+        FileBackedTaskManager saves = FileBackedTaskManager.loadFromFile(Paths.get("resources/saves.csv"),
+                WriteBehindLog.FsyncPolicy.every(Duration.ofSeconds(1)));
+        ConcurrentTaskManager manager = new ConcurrentTaskManager(saves);
+        // закрытие идёт под блокировкой менеджера, чтобы не оборвать изменение из потока обработчика
+        Runtime.getRuntime().addShutdownHook(new Thread(manager::close));
+        HttpTaskServer httpTaskServer = new HttpTaskServer(manager, boards);
 //        addTasksForTesting(Managers.getFileBacked());
         httpTaskServer.start();
 
@@ -80,6 +115,7 @@ public class HttpTaskServer {
 
     public void stop() {
         httpServer.stop(0);
+        executor.shutdownNow();
     }
 }
 
@@ -6,22 +6,29 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import model.Subtask;
 import model.Task;
+import model.TaskStatus;
 import utils.DurationAdapter;
+import utils.IntSet;
+import utils.IntSetAdapter;
 import utils.LocalDateTimeAdapter;
 import utils.TaskAccess;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.net.URLDecoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public abstract class BaseHttpHandler<T extends Task> implements HttpHandler {
     public static final Gson gson = new GsonBuilder()
             .registerTypeAdapter(Duration.class, new DurationAdapter().nullSafe())
             .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter().nullSafe())
+            .registerTypeAdapter(IntSet.class, new IntSetAdapter().nullSafe())
             .create();
     protected static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
     protected TaskAccess<T> access;
@@ -101,7 +108,19 @@ public abstract class BaseHttpHandler<T extends Task> implements HttpHandler {
         String method = exchange.getRequestMethod();
 
         switch (method) {
-            case "GET" -> sendText(exchange, gson.toJson(access.getAll()));
+            case "GET" -> {
+                Map<String, String> query = queryParams(exchange);
+                if (!query.containsKey("limit")) {
+                    sendText(exchange, gson.toJson(access.getAll()));
+                    return;
+                }
+                try {
+                    sendText(exchange, gson.toJson(access.getPage(Integer.parseInt(query.get("limit")),
+                            query.get("cursor"), parseStatus(query.get("status")))));
+                } catch (IllegalArgumentException e) {
+                    exchange.sendResponseHeaders(400, -1);
+                }
+            }
             case "POST" -> {
                 String json = new String(exchange.getRequestBody().readAllBytes(), DEFAULT_CHARSET);
                 T task = gson.fromJson(json, getTypeToken());
@@ -128,6 +147,23 @@ public abstract class BaseHttpHandler<T extends Task> implements HttpHandler {
     }
 
 
+    public static Map<String, String> queryParams(HttpExchange exchange) {
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), DEFAULT_CHARSET);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), DEFAULT_CHARSET);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    public static TaskStatus parseStatus(String status) {
+        return status == null ? null : TaskStatus.valueOf(status);
+    }
+
     public void sendText(HttpExchange exchange, String responseText) throws IOException {
         byte[] resp = responseText.getBytes(DEFAULT_CHARSET);
         exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
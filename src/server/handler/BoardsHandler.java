@@ -0,0 +1,169 @@
+package server.handler;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpPrincipal;
+import manager.BoardRegistry;
+import manager.TaskManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Map;
+import java.util.function.Function;
+
+// /boards/{boardId}/<ресурс>/... — обработчики одной доски над менеджером выбранной доски.
+public class BoardsHandler implements HttpHandler {
+    public static final String PATH = "/boards";
+    private static final Map<String, Function<TaskManager, HttpHandler>> RESOURCES = Map.ofEntries(
+            Map.entry(TaskHandler.PATH, TaskHandler::new),
+            Map.entry(SubtaskHandler.PATH, SubtaskHandler::new),
+            Map.entry(EpicHandler.PATH, EpicHandler::new),
+            Map.entry(HistoryHandler.PATH, HistoryHandler::new),
+            Map.entry(PrioritizedHandler.PATH, PrioritizedHandler::new),
+            Map.entry(StatsHandler.PATH, StatsHandler::new),
+            Map.entry(SearchHandler.PATH, SearchHandler::new),
+            Map.entry(FreeSlotHandler.PATH, FreeSlotHandler::new),
+            Map.entry(ScheduleHandler.PATH, ScheduleHandler::new),
+            Map.entry(ConflictsHandler.PATH, ConflictsHandler::new),
+            Map.entry(ChangesHandler.PATH, ChangesHandler::new),
+            Map.entry(EventsHandler.PATH, EventsHandler::new));
+    private final BoardRegistry boards;
+
+    public BoardsHandler(BoardRegistry boards) {
+        this.boards = boards;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getRawPath();
+        String[] parts = path.split("/", 4);
+        // ["", "boards", boardId, "<ресурс>/..."]
+        if (parts.length < 4) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        String rest = "/" + parts[3];
+        int slash = rest.indexOf('/', 1);
+        Function<TaskManager, HttpHandler> resource = RESOURCES.get(slash < 0 ? rest : rest.substring(0, slash));
+        if (resource == null) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        TaskManager manager;
+        try {
+            manager = boards.acquire(parts[2]);
+        } catch (IllegalArgumentException e) {
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+            return;
+        }
+        try {
+            String query = exchange.getRequestURI().getRawQuery();
+            resource.apply(manager).handle(new RoutedExchange(exchange, URI.create(query == null ? rest : rest + "?" + query)));
+        } finally {
+            boards.release(parts[2]);
+        }
+    }
+
+    private static class RoutedExchange extends HttpExchange {
+        private final HttpExchange exchange;
+        private final URI uri;
+
+        RoutedExchange(HttpExchange exchange, URI uri) {
+            this.exchange = exchange;
+            this.uri = uri;
+        }
+
+        @Override
+        public URI getRequestURI() {
+            return uri;
+        }
+
+        @Override
+        public Headers getRequestHeaders() {
+            return exchange.getRequestHeaders();
+        }
+
+        @Override
+        public Headers getResponseHeaders() {
+            return exchange.getResponseHeaders();
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return exchange.getRequestMethod();
+        }
+
+        @Override
+        public HttpContext getHttpContext() {
+            return exchange.getHttpContext();
+        }
+
+        @Override
+        public void close() {
+            exchange.close();
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return exchange.getRequestBody();
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return exchange.getResponseBody();
+        }
+
+        @Override
+        public void sendResponseHeaders(int code, long length) throws IOException {
+            exchange.sendResponseHeaders(code, length);
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return exchange.getRemoteAddress();
+        }
+
+        @Override
+        public int getResponseCode() {
+            return exchange.getResponseCode();
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return exchange.getLocalAddress();
+        }
+
+        @Override
+        public String getProtocol() {
+            return exchange.getProtocol();
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return exchange.getAttribute(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            exchange.setAttribute(name, value);
+        }
+
+        @Override
+        public void setStreams(InputStream in, OutputStream out) {
+            exchange.setStreams(in, out);
+        }
+
+        @Override
+        public HttpPrincipal getPrincipal() {
+            return exchange.getPrincipal();
+        }
+    }
+}
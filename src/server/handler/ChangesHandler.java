@@ -0,0 +1,44 @@
+package server.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import manager.ChangeLog;
+import manager.TaskManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static server.handler.BaseHttpHandler.gson;
+import static server.handler.BaseHttpHandler.queryParams;
+
+// GET /changes?since=<token> — изменения после токена; 410 с resyncRequired, если продолжить нельзя.
+public class ChangesHandler implements HttpHandler {
+    public static final String PATH = "/changes";
+    TaskManager manager;
+
+    public ChangesHandler(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            exchange.sendResponseHeaders(405, -1);
+            return;
+        }
+        Map<String, String> query = queryParams(exchange);
+        ChangeLog.Changes changes;
+        try {
+            changes = manager.getChangesSince(query.get("since"));
+        } catch (NumberFormatException e) {
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+            return;
+        }
+        byte[] resp = gson.toJson(changes).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(changes.resyncRequired() ? 410 : 200, resp.length);
+        exchange.getResponseBody().write(resp);
+        exchange.close();
+    }
+}
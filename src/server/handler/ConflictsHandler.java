@@ -0,0 +1,33 @@
+package server.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import manager.TaskManager;
+
+import java.io.IOException;
+
+import static server.handler.BaseHttpHandler.gson;
+
+// Админский отчёт: все пары пересекающихся задач в расписании.
+public class ConflictsHandler implements HttpHandler {
+    public static final String PATH = "/conflicts";
+    TaskManager manager;
+
+    public ConflictsHandler(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            exchange.sendResponseHeaders(405, -1);
+            return;
+        }
+        String json = gson.toJson(manager.getConflicts());
+        byte[] resp = json.getBytes();
+        exchange.sendResponseHeaders(200, resp.length);
+        exchange.getResponseBody().write(resp);
+        exchange.close();
+    }
+
+}
@@ -2,8 +2,10 @@ package server.handler;
 
 import com.sun.net.httpserver.HttpExchange;
 import manager.TaskManager;
+import manager.TaskPage;
 import model.Epic;
 import model.Subtask;
+import model.TaskStatus;
 import utils.EpicAccess;
 
 import java.lang.reflect.Type;
@@ -34,6 +36,10 @@ public class EpicHandler extends BaseHttpHandler<Epic> {
                 manager.updateEpicById(epic);
             }
 
+            public TaskPage<Epic> getPage(int limit, String cursor, TaskStatus status) {
+                return manager.getEpicsPage(limit, cursor, status);
+            }
+
             public List<Subtask> getSubtasksOfEpic(int epicId) {
                 return manager.getSubtasksOfEpic(epicId);
             }
@@ -0,0 +1,195 @@
+package server.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import manager.ChangeLog;
+import manager.TaskEvent;
+import manager.TaskListener;
+import manager.TaskManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static server.handler.BaseHttpHandler.gson;
+
+// GET /events — Server-Sent Events; id события — токен версии, как в /changes.
+// Клиент, который не успевает читать, отключается.
+public class EventsHandler implements HttpHandler {
+    public static final String PATH = "/events";
+    public static final int MAX_CONNECTIONS = 256;
+    private static final int BUFFER_CAPACITY = 1000;
+    private static final long HEARTBEAT_MILLIS = 15_000;
+    private static final long WRITE_TIMEOUT_MILLIS = 10_000;
+    private static final Semaphore CONNECTIONS = new Semaphore(MAX_CONNECTIONS);
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "events-write-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    TaskManager manager;
+
+    public EventsHandler(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            exchange.sendResponseHeaders(405, -1);
+            return;
+        }
+        if (!CONNECTIONS.tryAcquire()) {
+            exchange.getResponseHeaders().set("Retry-After", "5");
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        try {
+            stream(exchange);
+        } finally {
+            CONNECTIONS.release();
+        }
+    }
+
+    private void stream(HttpExchange exchange) {
+        Subscriber subscriber = new Subscriber();
+        manager.addListener(subscriber);
+        try (OutputStream body = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+            ChangeLog.Changes missed = missedChanges(lastEventId);
+            String epoch = ChangeLog.epochOf(missed.token());
+            long lastSent = replay(lastEventId != null, missed, epoch, body);
+            while (true) {
+                List<TaskEvent> events = subscriber.await();
+                if (events == null) {
+                    write(body, "event: resync\ndata: {}\n\n");
+                    return;
+                }
+                if (events.isEmpty()) {
+                    write(body, ": keepalive\n\n");
+                }
+                for (TaskEvent event : events) {
+                    if (event.version() <= lastSent) continue;
+                    write(body, format(epoch, event));
+                    lastSent = event.version();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // клиент отключился
+        } finally {
+            manager.removeListener(subscriber);
+            exchange.close();
+        }
+    }
+
+    private ChangeLog.Changes missedChanges(String lastEventId) {
+        try {
+            return manager.getChangesSince(lastEventId == null ? null : lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return manager.getChangesSince(null);
+        }
+    }
+
+    // подписка уже оформлена, поэтому изменения после снимка журнала не потеряются
+    private static long replay(boolean resumed, ChangeLog.Changes missed, String epoch, OutputStream body)
+            throws IOException {
+        if (!resumed) return 0;
+        if (missed.resyncRequired()) {
+            write(body, "event: resync\ndata: {}\n\n");
+        }
+        long lastSent = 0;
+        for (TaskEvent event : missed.changes()) {
+            write(body, format(epoch, event));
+            lastSent = event.version();
+        }
+        return lastSent;
+    }
+
+    private static String format(String epoch, TaskEvent event) {
+        return "id: " + ChangeLog.token(epoch, event.version()) + "\nevent: " + event.kind()
+                + "\ndata: " + gson.toJson(event) + "\n\n";
+    }
+
+    // канал прерываемый: прерывание застрявшей записи закрывает соединение
+    private static void write(OutputStream body, String message) throws IOException {
+        WriteDeadline deadline = new WriteDeadline(Thread.currentThread());
+        ScheduledFuture<?> timer = WATCHDOG.schedule(deadline, WRITE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        try {
+            body.write(message.getBytes(StandardCharsets.UTF_8));
+            body.flush();
+        } finally {
+            timer.cancel(false);
+            deadline.finish();
+        }
+    }
+
+    private static class WriteDeadline implements Runnable {
+        private final Thread writer;
+        private boolean finished;
+        private boolean expired;
+
+        WriteDeadline(Thread writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public synchronized void run() {
+            if (finished) return;
+            expired = true;
+            writer.interrupt();
+        }
+
+        // флаг прерывания снимается, чтобы поток пула не унёс его в следующий запрос
+        synchronized void finish() throws IOException {
+            finished = true;
+            if (expired) {
+                Thread.interrupted();
+                throw new IOException("Event stream client is not reading");
+            }
+        }
+    }
+
+    private class Subscriber implements TaskListener {
+        private final Map<Long, TaskEvent> pending = new LinkedHashMap<>();
+        private boolean overflowed;
+
+        @Override
+        public synchronized void onEvent(TaskEvent event) {
+            if (overflowed) return;
+            pending.remove(event.taskKey());
+            pending.put(event.taskKey(), event);
+            if (pending.size() > BUFFER_CAPACITY) {
+                // медленный клиент: освобождаем буфер и больше не принимаем события
+                overflowed = true;
+                pending.clear();
+                manager.removeListener(this);
+            }
+            notifyAll();
+        }
+
+        synchronized List<TaskEvent> await() throws InterruptedException {
+            if (pending.isEmpty() && !overflowed) {
+                wait(HEARTBEAT_MILLIS);
+            }
+            if (overflowed) return null;
+            List<TaskEvent> events = new ArrayList<>(pending.values());
+            pending.clear();
+            return events;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package server.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import manager.TaskManager;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static server.handler.BaseHttpHandler.gson;
+import static server.handler.BaseHttpHandler.queryParams;
+
+// GET /free-slot?duration=PT30M&after=... — ближайшее свободное время; без after — от текущего момента.
+public class FreeSlotHandler implements HttpHandler {
+    public static final String PATH = "/free-slot";
+    TaskManager manager;
+
+    public FreeSlotHandler(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            exchange.sendResponseHeaders(405, -1);
+            return;
+        }
+        Map<String, String> query = queryParams(exchange);
+        String json;
+        try {
+            if (!query.containsKey("duration")) {
+                throw new IllegalArgumentException("Query parameter duration is required");
+            }
+            LocalDateTime after = query.containsKey("after") ? LocalDateTime.parse(query.get("after")) : LocalDateTime.now();
+            Duration duration = Duration.parse(query.get("duration"));
+            Map<String, Object> slot = new LinkedHashMap<>();
+            slot.put("startTime", manager.findFreeSlot(after, duration));
+            slot.put("duration", duration);
+            json = gson.toJson(slot);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+            return;
+        }
+        byte[] resp = json.getBytes();
+        exchange.sendResponseHeaders(200, resp.length);
+        exchange.getResponseBody().write(resp);
+        exchange.close();
+    }
+}
@@ -5,8 +5,13 @@ import com.sun.net.httpserver.HttpHandler;
 import manager.TaskManager;
 
 import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Map;
 
 import static server.handler.BaseHttpHandler.gson;
+import static server.handler.BaseHttpHandler.parseStatus;
+import static server.handler.BaseHttpHandler.queryParams;
 
 public class PrioritizedHandler implements HttpHandler {
     public static final String PATH = "/prioritized";
@@ -22,10 +27,29 @@ public class PrioritizedHandler implements HttpHandler {
             exchange.sendResponseHeaders(405, -1);
             return;
         }
-        String json = gson.toJson(manager.getPrioritizedTasks());
+        Map<String, String> query = queryParams(exchange);
+        String json;
+        try {
+            if (query.containsKey("from") || query.containsKey("to")) {
+                json = gson.toJson(manager.getTasksBetween(parseTime(query.get("from")), parseTime(query.get("to"))));
+            } else if (query.containsKey("limit")) {
+                json = gson.toJson(manager.getPrioritizedPage(Integer.parseInt(query.get("limit")),
+                        query.get("cursor"), parseStatus(query.get("status"))));
+            } else {
+                json = gson.toJson(manager.getPrioritizedTasks());
+            }
+        } catch (IllegalArgumentException | DateTimeException e) {
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+            return;
+        }
         byte[] resp = json.getBytes();
         exchange.sendResponseHeaders(200, resp.length);
         exchange.getResponseBody().write(resp);
         exchange.close();
     }
+
+    private static LocalDateTime parseTime(String value) {
+        return value == null ? null : LocalDateTime.parse(value);
+    }
 }
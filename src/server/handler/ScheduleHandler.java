@@ -0,0 +1,75 @@
+package server.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import manager.TaskManager;
+import manager.TaskScheduler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+
+import static server.handler.BaseHttpHandler.gson;
+import static server.handler.BaseHttpHandler.queryParams;
+
+// GET /schedule — план размещения незапланированных задач, POST /schedule — тот же план, применённый пакетом.
+public class ScheduleHandler implements HttpHandler {
+    public static final String PATH = "/schedule";
+    TaskManager manager;
+
+    public ScheduleHandler(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (!method.equals("GET") && !method.equals("POST")) {
+            exchange.sendResponseHeaders(405, -1);
+            return;
+        }
+        TaskScheduler.Plan plan;
+        try {
+            plan = configure(queryParams(exchange)).plan();
+        } catch (IllegalArgumentException | DateTimeException e) {
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+            return;
+        }
+        if (method.equals("POST")) {
+            try {
+                manager.applyBatch(plan.toBatch());
+            } catch (IllegalStateException e) {
+                // план устарел: задача удалена, уже запланирована или время занято
+                exchange.sendResponseHeaders(406, -1);
+                exchange.close();
+                return;
+            }
+        }
+        byte[] resp = gson.toJson(plan).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, resp.length);
+        exchange.getResponseBody().write(resp);
+        exchange.close();
+    }
+
+    private TaskScheduler configure(Map<String, String> query) {
+        TaskScheduler scheduler = new TaskScheduler(manager);
+        if (query.containsKey("from")) {
+            scheduler.from(LocalDateTime.parse(query.get("from")));
+        }
+        if (query.containsKey("duration")) {
+            scheduler.defaultDuration(Duration.parse(query.get("duration")));
+        }
+        if (query.containsKey("workStart") || query.containsKey("workEnd")) {
+            if (!query.containsKey("workStart") || !query.containsKey("workEnd")) {
+                throw new IllegalArgumentException("Both workStart and workEnd are required");
+            }
+            scheduler.workingHours(LocalTime.parse(query.get("workStart")), LocalTime.parse(query.get("workEnd")));
+        }
+        return scheduler;
+    }
+}
@@ -0,0 +1,48 @@
+package server.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import manager.TaskManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static server.handler.BaseHttpHandler.gson;
+import static server.handler.BaseHttpHandler.queryParams;
+
+// GET /search?q=...&limit=... — задачи, в заголовке или описании которых есть все слова запроса
+public class SearchHandler implements HttpHandler {
+    public static final String PATH = "/search";
+    private static final int DEFAULT_LIMIT = 50;
+    TaskManager manager;
+
+    public SearchHandler(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            exchange.sendResponseHeaders(405, -1);
+            return;
+        }
+        Map<String, String> query = queryParams(exchange);
+        String json;
+        try {
+            if (!query.containsKey("q")) {
+                throw new IllegalArgumentException("Query parameter q is required");
+            }
+            int limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : DEFAULT_LIMIT;
+            json = gson.toJson(manager.search(query.get("q"), limit));
+        } catch (IllegalArgumentException e) {
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+            return;
+        }
+        byte[] resp = json.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, resp.length);
+        exchange.getResponseBody().write(resp);
+        exchange.close();
+    }
+}
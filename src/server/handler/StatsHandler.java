@@ -0,0 +1,43 @@
+package server.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import manager.TaskManager;
+import model.TaskStatus;
+import model.TaskType;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static server.handler.BaseHttpHandler.gson;
+
+// Счётчики задач по типам и статусам для мониторинга.
+public class StatsHandler implements HttpHandler {
+    public static final String PATH = "/stats";
+    TaskManager manager;
+
+    public StatsHandler(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            exchange.sendResponseHeaders(405, -1);
+            return;
+        }
+        Map<TaskType, Map<TaskStatus, Integer>> stats = new EnumMap<>(TaskType.class);
+        for (TaskType type : TaskType.values()) {
+            Map<TaskStatus, Integer> counts = new EnumMap<>(TaskStatus.class);
+            for (TaskStatus status : TaskStatus.values()) {
+                counts.put(status, manager.getCountByStatus(type, status));
+            }
+            stats.put(type, counts);
+        }
+        byte[] resp = gson.toJson(stats).getBytes();
+        exchange.sendResponseHeaders(200, resp.length);
+        exchange.getResponseBody().write(resp);
+        exchange.close();
+    }
+}
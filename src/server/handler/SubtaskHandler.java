@@ -2,7 +2,9 @@ package server.handler;
 
 import com.sun.net.httpserver.HttpExchange;
 import manager.TaskManager;
+import manager.TaskPage;
 import model.Subtask;
+import model.TaskStatus;
 import utils.TaskAccess;
 
 import java.lang.reflect.Type;
@@ -32,6 +34,10 @@ public class SubtaskHandler extends BaseHttpHandler<Subtask> {
             public void update(Subtask subtask) {
                 manager.updateSubtaskById(subtask);
             }
+
+            public TaskPage<Subtask> getPage(int limit, String cursor, TaskStatus status) {
+                return manager.getSubtasksPage(limit, cursor, status);
+            }
         });
     }
 
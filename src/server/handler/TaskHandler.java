@@ -2,7 +2,9 @@ package server.handler;
 
 import com.sun.net.httpserver.HttpExchange;
 import manager.TaskManager;
+import manager.TaskPage;
 import model.Task;
+import model.TaskStatus;
 import utils.TaskAccess;
 
 import java.lang.reflect.Type;
@@ -32,6 +34,10 @@ public class TaskHandler extends BaseHttpHandler<Task> {
             public void update(Task task) {
                 manager.updateTaskById(task);
             }
+
+            public TaskPage<Task> getPage(int limit, String cursor, TaskStatus status) {
+                return manager.getTasksPage(limit, cursor, status);
+            }
         });
     }
 
@@ -0,0 +1,291 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+// Карта int -> объект без упаковки ключей: хеш-таблица для поиска и отсортированные блоки ключей для порядка.
+public class IntObjectMap<V> implements Iterable<V> {
+    private static final int CHUNK = 512;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private final List<Chunk> order = new ArrayList<>();
+
+    private static class Chunk {
+        private int[] keys = new int[4];
+        private int count;
+
+        private int first() {
+            return keys[0];
+        }
+
+        private int last() {
+            return keys[count - 1];
+        }
+    }
+
+    public IntObjectMap() {
+        this(8);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize) - 1) << 2;
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return slot(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = slot(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value);
+        int slot = slot(key);
+        if (slot >= 0) {
+            V old = (V) values[slot];
+            values[slot] = value;
+            return old;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        slot = -slot(key) - 1;
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        addToOrder(key);
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = slot(key);
+        if (slot < 0) return null;
+        V old = (V) values[slot];
+        deleteSlot(slot);
+        size--;
+        removeFromOrder(key);
+        return old;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        order.clear();
+        size = 0;
+    }
+
+    public void forEachKey(IntConsumer action) {
+        for (Chunk chunk : order) {
+            for (int i = 0; i < chunk.count; i++) {
+                action.accept(chunk.keys[i]);
+            }
+        }
+    }
+
+    public void forEachKeyWhile(IntPredicate action) {
+        for (Chunk chunk : order) {
+            for (int i = 0; i < chunk.count; i++) {
+                if (!action.test(chunk.keys[i])) return;
+            }
+        }
+    }
+
+    public List<V> valuesAfter(int afterKey, int limit, Predicate<? super V> filter) {
+        List<V> page = new ArrayList<>(Math.min(limit, size));
+        if (order.isEmpty() || afterKey == Integer.MAX_VALUE) return page;
+        int index = chunkFor(afterKey + 1);
+        Chunk first = order.get(index);
+        int found = Arrays.binarySearch(first.keys, 0, first.count, afterKey + 1);
+        int position = found >= 0 ? found : -found - 1;
+        for (; index < order.size(); index++, position = 0) {
+            Chunk chunk = order.get(index);
+            for (; position < chunk.count; position++) {
+                if (page.size() == limit) return page;
+                V value = get(chunk.keys[position]);
+                if (filter.test(value)) {
+                    page.add(value);
+                }
+            }
+        }
+        return page;
+    }
+
+    public List<V> values() {
+        List<V> list = new ArrayList<>(size);
+        for (V value : this) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<>() {
+            private int chunk;
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while (chunk < order.size() && position == order.get(chunk).count) {
+                    chunk++;
+                    position = 0;
+                }
+                return chunk < order.size();
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(order.get(chunk).keys[position++]);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEachKey(key -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(key).append('=').append(get(key));
+        });
+        return sb.append('}').toString();
+    }
+
+    // ячейка ключа или -(свободная ячейка, куда его положить) - 1
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    // удаление со сдвигом назад, чтобы в таблице не копились надгробия
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = slot;
+        values[hole] = null;
+        while (true) {
+            next = (next + 1) & mask;
+            if (values[next] == null) return;
+            int home = mix(keys[next]) & mask;
+            boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+            if (movable) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                values[next] = null;
+                hole = next;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = -slot(oldKeys[i]) - 1;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void addToOrder(int key) {
+        Chunk last = order.isEmpty() ? null : order.get(order.size() - 1);
+        if (last == null || (last.count == CHUNK && key > last.last())) {
+            last = new Chunk();
+            order.add(last);
+        }
+        int index = last.count == 0 || key > last.last() ? order.size() - 1 : chunkFor(key);
+        Chunk chunk = order.get(index);
+        int position = -Arrays.binarySearch(chunk.keys, 0, chunk.count, key) - 1;
+        if (chunk.count == CHUNK) {
+            Chunk upper = new Chunk();
+            int half = CHUNK / 2;
+            upper.keys = Arrays.copyOfRange(chunk.keys, half, CHUNK);
+            upper.count = CHUNK - half;
+            chunk.count = half;
+            order.add(index + 1, upper);
+            if (position > half) {
+                position -= half;
+                chunk = upper;
+            }
+        }
+        if (chunk.count == chunk.keys.length) {
+            chunk.keys = Arrays.copyOf(chunk.keys, Math.min(CHUNK, chunk.keys.length * 2));
+        }
+        System.arraycopy(chunk.keys, position, chunk.keys, position + 1, chunk.count - position);
+        chunk.keys[position] = key;
+        chunk.count++;
+    }
+
+    private void removeFromOrder(int key) {
+        int index = chunkFor(key);
+        Chunk chunk = order.get(index);
+        int position = Arrays.binarySearch(chunk.keys, 0, chunk.count, key);
+        System.arraycopy(chunk.keys, position + 1, chunk.keys, position, chunk.count - position - 1);
+        chunk.count--;
+        if (chunk.count == 0) {
+            order.remove(index);
+        } else if (chunk.count < CHUNK / 4 && index + 1 < order.size()
+                && chunk.count + order.get(index + 1).count <= CHUNK / 2) {
+            // полупустые соседние блоки сливаются, чтобы удаления не оставляли длинный хвост почти пустых блоков
+            Chunk next = order.remove(index + 1);
+            chunk.keys = Arrays.copyOf(chunk.keys, Math.max(chunk.keys.length, chunk.count + next.count));
+            System.arraycopy(next.keys, 0, chunk.keys, chunk.count, next.count);
+            chunk.count += next.count;
+        }
+    }
+
+    private int chunkFor(int key) {
+        int low = 0;
+        int high = order.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (order.get(middle).first() <= key) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private static int mix(int key) {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,68 @@
+package utils;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+// Множество int по возрастанию поверх IntObjectMap: добавление, удаление и проверка без упаковки.
+public class IntSet {
+    private final IntObjectMap<Boolean> members;
+
+    public IntSet() {
+        members = new IntObjectMap<>();
+    }
+
+    public IntSet(int expectedSize) {
+        members = new IntObjectMap<>(expectedSize);
+    }
+
+    public boolean add(int value) {
+        return members.put(value, Boolean.TRUE) == null;
+    }
+
+    public boolean remove(int value) {
+        return members.remove(value) != null;
+    }
+
+    public boolean contains(int value) {
+        return members.containsKey(value);
+    }
+
+    public int size() {
+        return members.size();
+    }
+
+    public boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    public void clear() {
+        members.clear();
+    }
+
+    public void forEach(IntConsumer action) {
+        members.forEachKey(action);
+    }
+
+    public void forEachWhile(IntPredicate action) {
+        members.forEachKeyWhile(action);
+    }
+
+    public int[] toArray() {
+        int[] array = new int[members.size()];
+        int[] count = {0};
+        members.forEachKey(value -> array[count[0]++] = value);
+        return array;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        members.forEachKey(value -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(value);
+        });
+        return sb.append(']').toString();
+    }
+}
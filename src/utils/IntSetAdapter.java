@@ -0,0 +1,29 @@
+package utils;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+public class IntSetAdapter extends TypeAdapter<IntSet> {
+    @Override
+    public void write(JsonWriter writer, IntSet set) throws IOException {
+        writer.beginArray();
+        for (int value : set.toArray()) {
+            writer.value(value);
+        }
+        writer.endArray();
+    }
+
+    @Override
+    public IntSet read(JsonReader reader) throws IOException {
+        IntSet set = new IntSet();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            set.add(reader.nextInt());
+        }
+        reader.endArray();
+        return set;
+    }
+}
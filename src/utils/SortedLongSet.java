@@ -0,0 +1,125 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+// Упорядоченное множество long в виде списка отсортированных блоков до CHUNK элементов.
+public class SortedLongSet {
+    private static final int CHUNK = 512;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int size;
+
+    private static class Chunk {
+        private final long[] values = new long[CHUNK];
+        private int count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        chunks.clear();
+        size = 0;
+    }
+
+    public boolean add(long value) {
+        if (chunks.isEmpty()) {
+            chunks.add(new Chunk());
+        }
+        int index = chunkFor(value);
+        Chunk chunk = chunks.get(index);
+        int found = Arrays.binarySearch(chunk.values, 0, chunk.count, value);
+        if (found >= 0) return false;
+        int position = -found - 1;
+        if (chunk.count == CHUNK) {
+            Chunk upper = new Chunk();
+            int half = CHUNK / 2;
+            System.arraycopy(chunk.values, half, upper.values, 0, CHUNK - half);
+            upper.count = CHUNK - half;
+            chunk.count = half;
+            chunks.add(index + 1, upper);
+            if (position > half) {
+                position -= half;
+                chunk = upper;
+            }
+        }
+        System.arraycopy(chunk.values, position, chunk.values, position + 1, chunk.count - position);
+        chunk.values[position] = value;
+        chunk.count++;
+        size++;
+        return true;
+    }
+
+    public boolean remove(long value) {
+        if (chunks.isEmpty()) return false;
+        int index = chunkFor(value);
+        Chunk chunk = chunks.get(index);
+        int found = Arrays.binarySearch(chunk.values, 0, chunk.count, value);
+        if (found < 0) return false;
+        System.arraycopy(chunk.values, found + 1, chunk.values, found, chunk.count - found - 1);
+        chunk.count--;
+        if (chunk.count == 0 && chunks.size() > 1) {
+            chunks.remove(index);
+        }
+        size--;
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (chunks.isEmpty()) return false;
+        Chunk chunk = chunks.get(chunkFor(value));
+        return Arrays.binarySearch(chunk.values, 0, chunk.count, value) >= 0;
+    }
+
+    // наибольший элемент строго меньше value или absent, если такого нет
+    public long lower(long value, long absent) {
+        for (int index = chunks.isEmpty() ? -1 : chunkFor(value); index >= 0; index--) {
+            Chunk chunk = chunks.get(index);
+            int found = Arrays.binarySearch(chunk.values, 0, chunk.count, value);
+            int position = (found >= 0 ? found : -found - 1) - 1;
+            if (position >= 0) return chunk.values[position];
+        }
+        return absent;
+    }
+
+    public void forEachFrom(long from, LongPredicate action) {
+        if (chunks.isEmpty()) return;
+        int index = chunkFor(from);
+        Chunk first = chunks.get(index);
+        int found = Arrays.binarySearch(first.values, 0, first.count, from);
+        int position = found >= 0 ? found : -found - 1;
+        for (; index < chunks.size(); index++, position = 0) {
+            Chunk chunk = chunks.get(index);
+            for (; position < chunk.count; position++) {
+                if (!action.test(chunk.values[position])) return;
+            }
+        }
+    }
+
+    public void forEach(LongPredicate action) {
+        forEachFrom(Long.MIN_VALUE, action);
+    }
+
+    private int chunkFor(long value) {
+        int low = 0;
+        int high = chunks.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            Chunk chunk = chunks.get(middle);
+            if (chunk.count > 0 && chunk.values[0] <= value) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -1,6 +1,8 @@
 package utils;
 
+import manager.TaskPage;
 import model.Subtask;
+import model.TaskStatus;
 
 import java.util.List;
 
@@ -15,6 +17,8 @@ public interface TaskAccess<T> {
 
     void update(T task);
 
+    TaskPage<T> getPage(int limit, String cursor, TaskStatus status);
+
     default List<Subtask> getSubtasksOfEpic(int epicId) {
         throw new UnsupportedOperationException();
     }
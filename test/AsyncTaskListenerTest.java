@@ -0,0 +1,111 @@
+import manager.AsyncTaskListener;
+import manager.InMemoryTaskManager;
+import manager.TaskEvent;
+import manager.TaskListener;
+import manager.TaskManager;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncTaskListenerTest {
+
+    @Test
+    public void shouldDeliverEventsInBatches() throws InterruptedException {
+        TaskManager manager = new InMemoryTaskManager();
+        List<TaskEvent> received = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        AsyncTaskListener listener = new AsyncTaskListener(new TaskListener() {
+            @Override
+            public void onEvent(TaskEvent event) {
+                received.add(event);
+            }
+
+            @Override
+            public void onEvents(List<TaskEvent> events) {
+                batchSizes.add(events.size());
+                received.addAll(events);
+            }
+        }, 1000, 16);
+        manager.addListener(listener);
+        for (int i = 0; i < 100; i++) {
+            manager.createTask(new Task("model.Task", "task", TaskStatus.NEW));
+        }
+        listener.close();
+
+        assertEquals(100, received.size(), "Not all events are delivered");
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 16), "Batch size limit is exceeded");
+        assertEquals(0, listener.getDroppedCount());
+    }
+
+    @Test
+    public void shouldDropEventsInsteadOfBlockingWriter() throws InterruptedException {
+        TaskManager manager = new InMemoryTaskManager();
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncTaskListener listener = new AsyncTaskListener(event -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 4, 1);
+        manager.addListener(listener);
+        long start = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            manager.createTask(new Task("model.Task", "task", TaskStatus.NEW));
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "Writer is blocked by slow listener");
+        assertTrue(listener.getDroppedCount() >= 45, "Overflow is not counted");
+        release.countDown();
+        listener.close();
+    }
+
+    @Test
+    public void shouldKeepDeliveringAfterListenerFailureAndReportItOnClose() {
+        TaskManager manager = new InMemoryTaskManager();
+        List<TaskEvent> received = Collections.synchronizedList(new ArrayList<>());
+        AsyncTaskListener listener = new AsyncTaskListener(event -> {
+            if (event.version() == 1) {
+                throw new IllegalArgumentException("broken listener");
+            }
+            received.add(event);
+        }, 100, 1);
+        manager.addListener(listener);
+        for (int i = 0; i < 10; i++) {
+            manager.createTask(new Task("model.Task", "task", TaskStatus.NEW));
+        }
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, listener::close,
+                "Listener failure is not reported");
+        assertEquals("broken listener", e.getCause().getMessage());
+        assertEquals(9, received.size(), "Delivery stopped after listener failure");
+        assertEquals(1, listener.getFailedCount());
+    }
+
+    @Test
+    public void closeShouldKeepInterruptFlag() {
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncTaskListener listener = new AsyncTaskListener(event -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 4, 1);
+        listener.onEvent(new TaskEvent(TaskEvent.Kind.TASK_DELETED, 1, TaskType.TASK, 1, null));
+        Thread.currentThread().interrupt();
+        listener.close();
+
+        assertTrue(Thread.interrupted(), "Interrupt flag is lost");
+        release.countDown();
+        listener.close();
+    }
+}
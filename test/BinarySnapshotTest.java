@@ -0,0 +1,108 @@
+import manager.FileBackedTaskManager;
+import manager.ManagerFileLoadException;
+import manager.SnapshotConverter;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Test
+    public void shouldConvertCsvToBinarySnapshot() throws IOException {
+        Path csv = Files.createTempFile("saves", ".csv");
+        FileBackedTaskManager source = new FileBackedTaskManager(csv);
+        source.createTask(new Task("Купить хлеб", "черный", TaskStatus.NEW, START, Duration.ofMinutes(15)));
+        Epic epic = new Epic("model.Epic", "epic");
+        source.createEpic(epic);
+        source.createSubtask(new Subtask("model.Subtask", "subtask", TaskStatus.DONE, epic.getId(),
+                START.minusYears(60), Duration.ofHours(2)));
+        source.createTask(new Task("model.Task", "no time", TaskStatus.IN_PROGRESS));
+        source.compact();
+        Path snapshot = csv.resolveSibling(csv.getFileName() + ".bin");
+
+        SnapshotConverter.convert(csv, snapshot);
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(snapshot);
+
+        assertEquals(source.getPrioritizedTasks(), loaded.getPrioritizedTasks());
+        for (Task task : source.getListOfTasks()) {
+            Task copy = loaded.getTaskById(task.getId());
+            assertEquals(task.getTitle(), copy.getTitle());
+            assertEquals(task.getStatus(), copy.getStatus());
+            assertEquals(task.getStartTime(), copy.getStartTime());
+            assertEquals(task.getDuration(), copy.getDuration());
+        }
+        assertEquals(TaskStatus.DONE, loaded.getEpicById(epic.getId()).getStatus(), "Epic rollup is not restored");
+        assertTrue(Files.size(snapshot) < Files.size(csv), "Binary snapshot is larger than CSV");
+    }
+
+    @Test
+    public void shouldKeepBinaryFormatAfterCompaction() throws IOException {
+        Path csv = Files.createTempFile("saves", ".csv");
+        new FileBackedTaskManager(csv).createTask(new Task("model.Task", "task", TaskStatus.NEW));
+        Path snapshot = csv.resolveSibling(csv.getFileName() + ".bin");
+        SnapshotConverter.convert(csv, snapshot);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(snapshot);
+        Task withCommas = new Task("Title, with commas", null, TaskStatus.NEW);
+        manager.createTask(withCommas);
+        Task precise = new Task("model.Task", "nanos", TaskStatus.NEW, START.withNano(123_456_789),
+                Duration.ofSeconds(90, 5));
+        manager.createTask(precise);
+
+        manager.compact();
+
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(snapshot);
+        Task loaded = reloaded.getTaskById(withCommas.getId());
+        assertEquals("Title, with commas", loaded.getTitle(), "Commas are lost in binary snapshot");
+        assertNull(loaded.getDescription(), "Null description is not preserved");
+        Task loadedPrecise = reloaded.getTaskById(precise.getId());
+        assertEquals(precise.getStartTime(), loadedPrecise.getStartTime(), "Fraction of second is lost");
+        assertEquals(precise.getDuration(), loadedPrecise.getDuration(), "Fraction of second is lost");
+    }
+
+    @Test
+    public void shouldRejectDamagedSnapshot() throws IOException {
+        Path csv = Files.createTempFile("saves", ".csv");
+        FileBackedTaskManager source = new FileBackedTaskManager(csv);
+        for (int i = 0; i < 100; i++) {
+            source.createTask(new Task("model.Task " + i, "task", TaskStatus.NEW));
+        }
+        Path snapshot = csv.resolveSibling(csv.getFileName() + ".bin");
+        SnapshotConverter.convert(csv, snapshot);
+        byte[] bytes = Files.readAllBytes(snapshot);
+
+        byte[] flipped = bytes.clone();
+        flipped[bytes.length / 2] ^= 1;
+        Files.write(snapshot, flipped);
+        assertThrows(ManagerFileLoadException.class, () -> FileBackedTaskManager.loadFromFile(snapshot),
+                "Checksum mismatch is not detected");
+
+        // число записей первого блока — сразу после MAGIC и версии
+        byte[] header = bytes.clone();
+        header[5] ^= 1;
+        Files.write(snapshot, header);
+        assertThrows(ManagerFileLoadException.class, () -> FileBackedTaskManager.loadFromFile(snapshot),
+                "Damaged block header is not detected");
+
+        byte[] length = bytes.clone();
+        length[7] = (byte) 0xFF;
+        Files.write(snapshot, length);
+        assertThrows(ManagerFileLoadException.class, () -> FileBackedTaskManager.loadFromFile(snapshot),
+                "Block length beyond the file is not detected");
+
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 5));
+        assertThrows(ManagerFileLoadException.class, () -> FileBackedTaskManager.loadFromFile(snapshot),
+                "Truncated snapshot is not detected");
+    }
+}
@@ -0,0 +1,92 @@
+import manager.BoardRegistry;
+import manager.ManagerFileLoadException;
+import manager.TaskManager;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardRegistryTest {
+
+    @Test
+    public void shouldKeepBoardsIndependent() throws IOException {
+        try (BoardRegistry boards = BoardRegistry.open(Files.createTempDirectory("boards"), Duration.ofHours(1), 10)) {
+            TaskManager first = boards.acquire("first");
+            TaskManager second = boards.acquire("second");
+            Task task1 = new Task("model.Task", "task", TaskStatus.NEW);
+            Task task2 = new Task("model.Task", "task", TaskStatus.NEW);
+            first.createTask(task1);
+            second.createTask(task2);
+            assertEquals(1, task1.getId());
+            assertEquals(1, task2.getId(), "Boards share the id counter");
+            assertSame(first, boards.acquire("first"), "Loaded board is loaded again");
+            assertThrows(IllegalArgumentException.class, () -> boards.acquire("../etc"));
+        }
+    }
+
+    @Test
+    public void shouldEvictOnlyUnusedBoardsAndReloadFromFile() throws IOException {
+        Path directory = Files.createTempDirectory("boards");
+        try (BoardRegistry boards = BoardRegistry.open(directory, Duration.ofHours(1), 2)) {
+            TaskManager busy = boards.acquire("busy");
+            boards.acquire("idle").createTask(new Task("Saved", "task", TaskStatus.NEW));
+            boards.release("idle");
+            boards.acquire("third");
+            assertEquals(2, boards.loadedCount(), "Board limit is exceeded");
+            assertSame(busy, boards.acquire("busy"), "Board in use is evicted");
+
+            TaskManager reloaded = boards.acquire("idle");
+            assertEquals("Saved", reloaded.getListOfTasks().get(0).getTitle(), "Evicted board lost its tasks");
+        }
+        try (BoardRegistry boards = BoardRegistry.open(directory, Duration.ZERO, 10)) {
+            boards.acquire("idle");
+            boards.release("idle");
+            assertEquals(1, boards.evictIdle(), "Idle board is not evicted");
+            assertEquals(0, boards.loadedCount());
+        }
+    }
+
+    @Test
+    public void concurrentFirstAcquiresShouldShareOneLoad() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try (BoardRegistry boards = BoardRegistry.open(Files.createTempDirectory("boards"), Duration.ofHours(1), 10)) {
+            List<Future<TaskManager>> managers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                managers.add(pool.submit(() -> boards.acquire("shared")));
+            }
+            for (Future<TaskManager> manager : managers) {
+                assertSame(managers.get(0).get(), manager.get(), "Board is loaded twice");
+            }
+            assertEquals(1, boards.loadedCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedLoadShouldNotStayInRegistry() throws IOException {
+        Path directory = Files.createTempDirectory("boards");
+        Files.writeString(directory.resolve("bad.csv"), """
+                id,type,name,status,description,epic,startTime,duration
+                1,SUBTASK,S,NEW,s,7,null,null
+                """);
+        try (BoardRegistry boards = BoardRegistry.open(directory, Duration.ofHours(1), 10)) {
+            assertThrows(ManagerFileLoadException.class, () -> boards.acquire("bad"));
+            assertEquals(0, boards.loadedCount(), "Failed board is kept");
+
+            Files.delete(directory.resolve("bad.csv"));
+            assertNotNull(boards.acquire("bad"), "Failed load is cached");
+        }
+    }
+}
@@ -0,0 +1,56 @@
+import manager.ChangeLog;
+import manager.TaskEvent;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeLogTest {
+
+    @Test
+    public void shouldReturnLatestChangePerTask() {
+        ChangeLog log = new ChangeLog(10);
+        Task task = new Task(1, "model.Task", "task", TaskStatus.NEW);
+        log.append(new TaskEvent(TaskEvent.Kind.TASK_CREATED, 1, TaskType.TASK, 1, task));
+        log.append(new TaskEvent(TaskEvent.Kind.TASK_CREATED, 2, TaskType.TASK, 2, task));
+        log.append(new TaskEvent(TaskEvent.Kind.TASK_UPDATED, 3, TaskType.TASK, 1, task));
+
+        ChangeLog.Changes changes = log.since(1);
+        assertFalse(changes.resyncRequired());
+        assertEquals(3, changes.version());
+        assertEquals(List.of(2L, 3L), changes.changes().stream().map(TaskEvent::version).toList(),
+                "Only the latest event per task must be returned, in version order");
+        assertTrue(log.since(3).changes().isEmpty(), "Client with the last version must get no changes");
+    }
+
+    @Test
+    public void shouldRequireResyncWhenLogIsTrimmed() {
+        ChangeLog log = new ChangeLog(3);
+        for (int version = 1; version <= 5; version++) {
+            log.append(new TaskEvent(TaskEvent.Kind.TASK_DELETED, version, TaskType.TASK, version, null));
+        }
+        assertTrue(log.since(1).resyncRequired(), "Trimmed versions are returned");
+        assertEquals(3, log.since(2).changes().size());
+        assertTrue(log.since(6).resyncRequired(), "Version from the future must require resync");
+    }
+
+    @Test
+    public void shouldRequireResyncForTokenOfAnotherLog() {
+        ChangeLog log = new ChangeLog(10);
+        ChangeLog restarted = new ChangeLog(10);
+        String token = log.since(0).token();
+        log.append(new TaskEvent(TaskEvent.Kind.TASK_DELETED, 1, TaskType.TASK, 1, null));
+        restarted.append(new TaskEvent(TaskEvent.Kind.TASK_DELETED, 1, TaskType.TASK, 7, null));
+
+        assertEquals(1, log.since(token).changes().size());
+        ChangeLog.Changes changes = restarted.since(token);
+        assertTrue(changes.resyncRequired(), "Token of another log is accepted");
+        assertEquals(restarted.getEpoch(), ChangeLog.epochOf(changes.token()));
+        assertTrue(restarted.since((String) null).resyncRequired(), "Missing token is accepted");
+        assertTrue(restarted.since("0").resyncRequired(), "Version without epoch is accepted");
+    }
+}
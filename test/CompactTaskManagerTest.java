@@ -0,0 +1,169 @@
+import manager.CompactTaskManager;
+import manager.InMemoryTaskManager;
+import manager.TaskManager;
+import manager.TaskBatch;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Компактное хранилище отдаёт копии, поэтому проверки сводки эпика перечитывают его через менеджер,
+// а время берётся с точностью до минуты.
+class CompactTaskManagerTest extends TaskManagerTest<CompactTaskManager> {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Override
+    protected CompactTaskManager createManager() {
+        return new CompactTaskManager();
+    }
+
+    @Test
+    @Override
+    public void shouldAssignEpicsTimeCorrectly() {
+        Duration duration = Duration.ofMinutes(30);
+        Epic epic = new Epic("model.Epic", "epic");
+        manager.createEpic(epic);
+        int epicId = epic.getId();
+        Subtask sb1 = new Subtask("Sb", "sb", TaskStatus.NEW, epicId, START, duration);
+        manager.createSubtask(sb1);
+        assertEquals(sb1.getEndTime(), manager.getEpicById(epicId).getEndTime());
+        assertEquals(sb1.getStartTime(), manager.getEpicById(epicId).getStartTime());
+        Subtask sb2 = new Subtask("Sb", "sb", TaskStatus.NEW, epicId, START.plusMinutes(30), duration);
+        manager.createSubtask(sb2);
+        assertEquals(sb2.getEndTime(), manager.getEpicById(epicId).getEndTime(), "Epics end time is not extended");
+        Subtask sb3 = new Subtask("Sb", "sb", TaskStatus.NEW, epicId, START.minusMinutes(30), duration);
+        manager.createSubtask(sb3);
+        assertEquals(sb3.getStartTime(), manager.getEpicById(epicId).getStartTime(), "Epics start time is not extended");
+        manager.deleteSubtaskById(sb3.getId());
+        assertEquals(sb1.getStartTime(), manager.getEpicById(epicId).getStartTime(),
+                "Deleting earliest subtask is not changing epics start time");
+        manager.deleteSubtaskById(sb2.getId());
+        assertEquals(sb1.getEndTime(), manager.getEpicById(epicId).getEndTime(),
+                "Deleting latest subtask is not changing epics end time");
+    }
+
+    @Test
+    @Override
+    public void shouldResetEpicAfterRemovingLastSubtask() {
+        Epic epic = new Epic("model.Epic", "epic");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Sb", "sb", TaskStatus.DONE, epic.getId(), START, Duration.ofMinutes(30));
+        manager.createSubtask(subtask);
+        manager.updateSubtaskById(new Subtask(subtask.getId(), "Sb", "sb", TaskStatus.IN_PROGRESS, epic.getId()));
+        assertEquals(TaskStatus.IN_PROGRESS, manager.getEpicById(epic.getId()).getStatus());
+        assertNull(manager.getEpicById(epic.getId()).getStartTime(), "model.Epic keeps start time of subtask that lost its time");
+        manager.deleteSubtaskById(subtask.getId());
+        assertEquals(TaskStatus.NEW, manager.getEpicById(epic.getId()).getStatus(), "model.Epic without subtasks is not NEW");
+        assertNull(manager.getEpicById(epic.getId()).getEndTime(), "model.Epic without subtasks keeps end time");
+    }
+
+    @Test
+    @Override
+    public void applyBatch_shouldApplyAllOperations() {
+        Duration duration = Duration.ofMinutes(30);
+        Epic epic = new Epic("model.Epic", "epic");
+        manager.createEpic(epic);
+        Task oldTask = new Task("model.Task", "task", TaskStatus.NEW, START, duration);
+        manager.createTask(oldTask);
+        Task newTask = new Task("model.Task", "task", TaskStatus.NEW, START, duration);
+        Subtask subtask1 = new Subtask("model.Subtask", "subtask", TaskStatus.DONE, epic.getId(),
+                START.plusHours(1), duration);
+        Subtask subtask2 = new Subtask("model.Subtask", "subtask", TaskStatus.DONE, epic.getId(),
+                START.plusHours(2), duration);
+        manager.applyBatch(new TaskBatch()
+                .deleteTask(oldTask.getId())
+                .createTask(newTask)
+                .createSubtask(subtask1)
+                .createSubtask(subtask2));
+        assertEquals(List.of(newTask), manager.getListOfTasks(), "Batch did not replace the task in the freed slot");
+        assertEquals(List.of(newTask, subtask1, subtask2), manager.getPrioritizedTasks());
+        Epic stored = manager.getEpicById(epic.getId());
+        assertEquals(TaskStatus.DONE, stored.getStatus(), "model.Epic's status is not rolled up after batch");
+        assertEquals(subtask2.getEndTime(), stored.getEndTime(), "model.Epic's time is not rolled up after batch");
+    }
+
+    @Test
+    @Override
+    public void shouldUpdateEpicsStatusCorrectly() {
+        Epic epic = new Epic("model.Epic", "epic");
+        manager.createEpic(epic);
+        int epicId = epic.getId();
+        manager.createSubtask(new Subtask("model.Subtask", "subtask", TaskStatus.DONE, epicId));
+        assertEquals(TaskStatus.DONE, manager.getEpicById(epicId).getStatus());
+
+        Subtask subtask2 = new Subtask("model.Subtask", "subtask", TaskStatus.NEW, epicId);
+        manager.createSubtask(subtask2);
+        assertEquals(TaskStatus.IN_PROGRESS, manager.getEpicById(epicId).getStatus());
+
+        manager.deleteSubtaskById(subtask2.getId());
+        assertEquals(TaskStatus.DONE, manager.getEpicById(epicId).getStatus());
+
+        manager.deleteAllSubtasks();
+        assertEquals(TaskStatus.NEW, manager.getEpicById(epicId).getStatus(),
+                "model.Epic's status is not reset after deleting all subtasks");
+    }
+
+    @Test
+    public void shouldStoreCopiesTruncatedToMinutes() {
+        Task task = new Task("Title", null, TaskStatus.NEW, START.plusSeconds(42), Duration.ofSeconds(150));
+        manager.createTask(task);
+        task.setTitle("Changed outside");
+
+        Task stored = manager.getTaskById(task.getId());
+        assertEquals("Title", stored.getTitle(), "Caller's object must not alias the stored row");
+        assertNull(stored.getDescription());
+        assertEquals(START, stored.getStartTime());
+        assertEquals(Duration.ofMinutes(2), stored.getDuration());
+    }
+
+    @Test
+    public void shouldKeepTextAfterPoolCompaction() {
+        Task task = new Task("Task", "first", TaskStatus.NEW);
+        manager.createTask(task);
+        Task other = new Task("Other", "kept", TaskStatus.NEW);
+        manager.createTask(other);
+        for (int i = 0; i < 10_000; i++) {
+            manager.updateTaskById(new Task(task.getId(), "Task " + i, "description " + i, TaskStatus.NEW));
+        }
+        assertEquals("Task 9999", manager.getTaskById(task.getId()).getTitle());
+        assertEquals("description 9999", manager.getTaskById(task.getId()).getDescription());
+        assertEquals("kept", manager.getTaskById(other.getId()).getDescription());
+        assertEquals(List.of(other), manager.search("kept", 10));
+    }
+
+    @Test
+    public void printAllTasks_shouldMatchInMemoryManagerAcrossPages() {
+        InMemoryTaskManager reference = new InMemoryTaskManager();
+        for (TaskManager target : List.of(manager, reference)) {
+            for (int i = 0; i < 1500; i++) {
+                target.createTask(new Task("model.Task " + i, "task", TaskStatus.NEW));
+            }
+            Epic epic = new Epic("model.Epic", "epic");
+            target.createEpic(epic);
+            target.createSubtask(new Subtask("Sb", "sb", TaskStatus.DONE, epic.getId()));
+        }
+
+        assertEquals(printed(reference), printed(manager), "Printed boards differ");
+    }
+
+    private static String printed(TaskManager target) {
+        PrintStream out = System.out;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(buffer));
+        try {
+            target.printAllTasks();
+        } finally {
+            System.setOut(out);
+        }
+        return buffer.toString();
+    }
+}
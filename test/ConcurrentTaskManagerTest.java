@@ -0,0 +1,162 @@
+import manager.ConcurrentTaskManager;
+import manager.Managers;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 300;
+
+    @Override
+    protected ConcurrentTaskManager createManager() {
+        return (ConcurrentTaskManager) Managers.getConcurrent();
+    }
+
+    @Test
+    public void shouldKeepInvariantsUnderConcurrentMutations() throws Exception {
+        LocalDateTime base = LocalDateTime.now();
+        Duration duration = Duration.ofMinutes(10);
+        Epic epic = new Epic("model.Epic", "epic");
+        manager.createEpic(epic);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS; i++) {
+                    LocalDateTime slot = base.plusMinutes(10L * (thread * OPERATIONS + i));
+                    Task task = new Task("model.Task", "task", TaskStatus.NEW, slot, duration);
+                    manager.createTask(task);
+                    manager.updateTaskById(new Task(task.getId(), "model.Task", "task", TaskStatus.DONE, slot, duration));
+                    Subtask subtask = new Subtask("model.Subtask", "subtask", TaskStatus.NEW, epic.getId());
+                    manager.createSubtask(subtask);
+                    if (i % 2 == 0) {
+                        manager.deleteTaskById(task.getId());
+                        manager.deleteSubtaskById(subtask.getId());
+                    }
+                    manager.getListOfTasks();
+                    manager.getPrioritizedTasks();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        int expected = THREADS * OPERATIONS / 2;
+        List<Task> tasks = manager.getListOfTasks();
+        assertEquals(expected, tasks.size(), "Lost or duplicated tasks under concurrent writes");
+        assertEquals(expected, manager.getListOfSubtasks().size(), "Lost or duplicated subtasks under concurrent writes");
+        assertEquals(expected, manager.getSubtasksOfEpic(epic.getId()).size(), "model.Epic's subtask list is inconsistent");
+        Set<Integer> ids = new HashSet<>();
+        tasks.forEach(task -> assertTrue(ids.add(task.getId()), "Duplicate id " + task.getId()));
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        assertEquals(expected, prioritized.size(), "Schedule index is out of sync with tasks");
+        for (int i = 1; i < prioritized.size(); i++) {
+            assertFalse(prioritized.get(i).getStartTime().isBefore(prioritized.get(i - 1).getEndTime()),
+                    "Schedule contains overlapping tasks");
+        }
+        assertTrue(tasks.stream().allMatch(task -> task.getStatus() == TaskStatus.DONE), "Update was lost");
+    }
+
+    @Test
+    public void shouldReuseListSnapshotUntilNextWrite() {
+        Task task1 = new Task("model.Task", "task", TaskStatus.NEW);
+        manager.createTask(task1);
+        List<Task> first = manager.getListOfTasks();
+        assertSame(first, manager.getListOfTasks(), "Unchanged list is copied again");
+        assertThrows(UnsupportedOperationException.class, () -> first.add(task1), "Snapshot is mutable");
+        Task task2 = new Task("model.Task", "task", TaskStatus.NEW);
+        manager.createTask(task2);
+        assertEquals(List.of(task1, task2), manager.getListOfTasks(), "Snapshot is not refreshed after write");
+        assertEquals(List.of(task1), first, "Published snapshot was changed by later write");
+    }
+
+    @Test
+    public void publishedEpicSnapshotShouldNotChangeWithLaterWrites() {
+        Epic epic = new Epic("model.Epic", "epic");
+        manager.createEpic(epic);
+        Epic published = manager.getListOfEpics().get(0);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        manager.createSubtask(new Subtask("model.Subtask", "subtask", TaskStatus.DONE, epic.getId(),
+                start, Duration.ofMinutes(30)));
+
+        assertEquals(TaskStatus.NEW, published.getStatus(), "Rollup changed the published epic");
+        assertNull(published.getStartTime(), "Rollup changed the published epic");
+        assertTrue(published.getSubtaskIds().isEmpty(), "Subtask list of the published epic changed");
+        Epic fresh = manager.getListOfEpics().get(0);
+        assertEquals(TaskStatus.DONE, fresh.getStatus(), "New snapshot misses the rollup");
+        assertEquals(start, fresh.getStartTime());
+        assertEquals(1, fresh.getSubtaskIds().size());
+    }
+
+    @Test
+    public void singleReadsShouldReturnCopiesTakenUnderLock() {
+        Epic epic = new Epic("model.Epic", "epic");
+        manager.createEpic(epic);
+        Epic read = manager.getEpicById(epic.getId());
+        Epic paged = manager.getEpicsPage(10, null, null).items().get(0);
+        Epic found = (Epic) manager.search("epic", 10).get(0);
+        Epic viewed = (Epic) manager.getHistory().get(0);
+        manager.createSubtask(new Subtask("model.Subtask", "subtask", TaskStatus.DONE, epic.getId()));
+
+        for (Epic copy : List.of(read, paged, found, viewed)) {
+            assertEquals(TaskStatus.NEW, copy.getStatus(), "Rollup changed an epic already handed out");
+            assertTrue(copy.getSubtaskIds().isEmpty(), "New subtask changed an epic already handed out");
+        }
+        assertEquals(TaskStatus.DONE, manager.getEpicById(epic.getId()).getStatus());
+        assertNull(manager.getSubtasksOfEpic(100));
+    }
+
+    @Test
+    public void shouldAcceptOnlyOneOfConcurrentOverlappingTasks() throws Exception {
+        LocalDateTime slot = LocalDateTime.now();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    manager.createTask(new Task("model.Task", "task", TaskStatus.NEW, slot, Duration.ofMinutes(30)));
+                    created.incrementAndGet();
+                } catch (IllegalStateException ignored) {
+                    // пересечение обнаружено — ожидаемо для всех потоков, кроме одного
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        assertEquals(1, created.get(), "Overlap validation is not atomic with insertion");
+        assertEquals(1, manager.getPrioritizedTasks().size());
+    }
+}
@@ -1,6 +1,14 @@
 import manager.FileBackedTaskManager;
+import manager.ManagerFileLoadException;
+import manager.ManagerSaveException;
+import manager.TaskBatch;
+import manager.TaskConflict;
+import manager.WriteBehindLog;
+import model.Epic;
+import model.Subtask;
 import model.Task;
 import model.TaskStatus;
+import model.TaskType;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -9,6 +17,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -34,4 +43,285 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         FileBackedTaskManager manager2 = FileBackedTaskManager.loadFromFile(path);
         assertEquals(manager1.getListOfTasks().getFirst(), manager2.getListOfTasks().getFirst());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldPersistBatch() throws IOException {
+        Path path = Files.createTempFile("temp", ".csv");
+        FileBackedTaskManager manager1 = new FileBackedTaskManager(path);
+        Task task1 = new Task("model.Task", "task", TaskStatus.NEW);
+        Task task2 = new Task("model.Task", "task", TaskStatus.DONE);
+        manager1.applyBatch(new TaskBatch().createTask(task1).createTask(task2));
+        FileBackedTaskManager manager2 = FileBackedTaskManager.loadFromFile(path);
+        assertEquals(manager1.getListOfTasks(), manager2.getListOfTasks(), "Batch is not saved to file");
+        assertEquals(1, manager2.getCountByStatus(TaskType.TASK, TaskStatus.DONE), "Status index is not loaded");
+    }
+
+    @Test
+    public void shouldKeepLogRecordWhenListenerFails() throws IOException {
+        Path path = Files.createTempFile("temp", ".csv");
+        FileBackedTaskManager manager1 = new FileBackedTaskManager(path);
+        boolean[] failed = {false};
+        manager1.addListener(event -> {
+            if (!failed[0]) {
+                failed[0] = true;
+                throw new IllegalStateException("listener failure");
+            }
+        });
+        manager1.createTask(new Task("First", "task", TaskStatus.NEW));
+        manager1.createTask(new Task("Second", "task", TaskStatus.NEW));
+
+        FileBackedTaskManager manager2 = FileBackedTaskManager.loadFromFile(path);
+        assertEquals(2, manager2.getListOfTasks().size(), "Record is lost after a listener failure");
+    }
+
+    @Test
+    public void shouldReportOverlapsFromEditedFile() throws IOException {
+        Path path = Files.createTempFile("temp", ".csv");
+        Files.writeString(path, """
+                id,type,name,status,description,epic,startTime,duration
+                1,TASK,A,NEW,a,2024-01-01T09:00,60
+                2,TASK,B,NEW,b,2024-01-01T09:00,30
+                3,EPIC,E,NEW,e
+                4,SUBTASK,C,NEW,c,3,2024-01-01T09:45,60
+                5,TASK,D,NEW,d,2024-01-01T11:00,30
+                """);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(path);
+        assertEquals(4, manager.getPrioritizedTasks().size(), "Tasks with equal start time are dropped");
+        assertEquals(List.of(
+                new TaskConflict(1, 2, LocalDateTime.of(2024, 1, 1, 9, 0), LocalDateTime.of(2024, 1, 1, 9, 30)),
+                new TaskConflict(1, 4, LocalDateTime.of(2024, 1, 1, 9, 45), LocalDateTime.of(2024, 1, 1, 10, 0))
+        ), manager.getConflicts(), "Not all overlapping pairs are reported");
+    }
+
+    @Test
+    public void shouldAppendChangesToLogInsteadOfRewritingSnapshot() throws IOException {
+        Path path = Files.createTempFile("temp", ".csv");
+        Path log = path.resolveSibling(path.getFileName() + ".log");
+        FileBackedTaskManager manager1 = new FileBackedTaskManager(path);
+        Task task = new Task("model.Task", "task", TaskStatus.NEW);
+        manager1.createTask(task);
+        Task deleted = new Task("model.Task", "deleted", TaskStatus.NEW);
+        manager1.createTask(deleted);
+        String snapshot = Files.readString(path);
+        for (int i = 0; i < 100; i++) {
+            manager1.updateTaskById(new Task(task.getId(), "model.Task " + i, "task", TaskStatus.IN_PROGRESS));
+        }
+        manager1.deleteTaskById(deleted.getId());
+
+        assertEquals(snapshot, Files.readString(path), "Snapshot is rewritten on every change");
+        assertEquals(102, Files.readAllLines(log).size(), "Every change must append one record");
+        FileBackedTaskManager manager2 = FileBackedTaskManager.loadFromFile(path);
+        assertEquals(List.of(task), manager2.getListOfTasks(), "Deleted task is restored from snapshot");
+        assertEquals("model.Task 99", manager2.getTaskById(task.getId()).getTitle(), "Log is not replayed");
+        manager2.createTask(new Task("model.Task", "new", TaskStatus.NEW));
+        assertEquals(3, manager2.getListOfTasks().get(1).getId(), "Id of task deleted in log is reused");
+    }
+
+    @Test
+    public void shouldCompactLogIntoSnapshot() throws IOException {
+        Path path = Files.createTempFile("temp", ".csv");
+        Path log = path.resolveSibling(path.getFileName() + ".log");
+        FileBackedTaskManager manager1 = new FileBackedTaskManager(path);
+        Epic epic = new Epic("model.Epic", "epic");
+        manager1.createEpic(epic);
+        Subtask subtask = new Subtask("model.Subtask", "subtask", TaskStatus.DONE, epic.getId());
+        manager1.createSubtask(subtask);
+        manager1.updateEpicById(new Epic(epic.getId(), "Renamed", "epic"));
+
+        manager1.compact();
+
+        assertFalse(Files.exists(log), "Log is not folded into snapshot");
+        FileBackedTaskManager manager2 = FileBackedTaskManager.loadFromFile(path);
+        assertEquals("Renamed", manager2.getEpicById(epic.getId()).getTitle());
+        assertEquals(TaskStatus.DONE, manager2.getEpicById(epic.getId()).getStatus(), "Epic rollup is not restored");
+        assertEquals(List.of(subtask), manager2.getSubtasksOfEpic(epic.getId()));
+    }
+
+    @Test
+    public void closeShouldWaitForBackgroundCompaction() throws IOException {
+        Path path = Files.createTempFile("temp", ".csv");
+        FileBackedTaskManager manager1 = new FileBackedTaskManager(path);
+        Task task = new Task("model.Task", "task", TaskStatus.NEW);
+        manager1.createTask(task);
+        for (int i = 0; i <= 10_000; i++) {
+            manager1.updateTaskById(new Task(task.getId(), "model.Task " + i, "task", TaskStatus.NEW));
+        }
+        manager1.close();
+
+        assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".log.old")),
+                "Background compaction is still running after close");
+        FileBackedTaskManager manager2 = FileBackedTaskManager.loadFromFile(path);
+        assertEquals("model.Task 10000", manager2.getTaskById(task.getId()).getTitle());
+    }
+
+    @Test
+    public void shouldReplayLogsLeftByInterruptedCompaction() throws IOException {
+        Path path = Files.createTempFile("temp", ".csv");
+        Files.writeString(path, """
+                id,type,name,status,description,epic,startTime,duration
+                1,TASK,A,NEW,a,null,null
+                2,EPIC,E,NEW,e
+                """);
+        Files.writeString(path.resolveSibling(path.getFileName() + ".log.old"), """
+                +,3,SUBTASK,S,IN_PROGRESS,s,2,2024-01-01T09:00,30
+                -,1
+                """);
+        Files.writeString(path.resolveSibling(path.getFileName() + ".log"), """
+                +,4,TASK,B,DONE,b,null,null
+                +,3,SUBTASK,S,DONE,s,2,2024-01-01T09:00,30
+                +,5,TASK,bro""");
+
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(path);
+
+        assertNull(manager.getTaskById(1), "Delete from rotated log is lost");
+        assertEquals(TaskStatus.DONE, manager.getTaskById(4).getStatus());
+        assertEquals(TaskStatus.DONE, manager.getEpicById(2).getStatus(), "Later record must win");
+        assertNull(manager.getTaskById(5), "Torn record must be ignored");
+        assertEquals("+,5,TASK,bro", manager.getTornRecord(), "Torn record is not reported");
+    }
+
+    @Test
+    public void shouldKeepCommasLineBreaksAndBackslashesInText() throws IOException {
+        Path path = Files.createTempFile("temp", ".csv");
+        FileBackedTaskManager manager1 = new FileBackedTaskManager(path);
+        manager1.compact();
+        Epic epic = new Epic("Epic, with comma", "");
+        manager1.createEpic(epic);
+        for (int i = 0; i < 6; i++) {
+            manager1.createTask(new Task("Hello, world " + i, "line\r\nnext, C:\\temp\\n", TaskStatus.NEW));
+        }
+        manager1.createSubtask(new Subtask("Sb,", ",\n", TaskStatus.DONE, epic.getId()));
+
+        // все изменения — в журнале поверх пустого снимка, затем те же строки из снимка
+        FileBackedTaskManager fromLog = FileBackedTaskManager.loadFromFile(path);
+        manager1.compact();
+        FileBackedTaskManager fromSnapshot = FileBackedTaskManager.loadFromFile(path);
+
+        for (FileBackedTaskManager manager2 : List.of(fromLog, fromSnapshot)) {
+            assertEquals(manager1.getListOfTasks().toString(), manager2.getListOfTasks().toString(),
+                    "Tasks with commas in text are lost");
+            assertEquals(manager1.getListOfEpics().toString(), manager2.getListOfEpics().toString());
+            assertEquals(manager1.getListOfSubtasks().toString(), manager2.getListOfSubtasks().toString());
+            Task task = new Task("model.Task", "task", TaskStatus.NEW);
+            manager2.createTask(task);
+            assertEquals(9, task.getId(), "Id is reused after load");
+        }
+    }
+
+    @Test
+    public void shouldFailOnCorruptRecordInsideLog() throws IOException {
+        Path path = Files.createTempFile("temp", ".csv");
+        Files.writeString(path, """
+                id,type,name,status,description,epic,startTime,duration
+                1,TASK,A,NEW,a,null,null
+                """);
+        Files.writeString(path.resolveSibling(path.getFileName() + ".log"), """
+                +,2,TASK,B,NEW,b,null,null
+                +,3,TASK,C,NEW,c,bad,null
+                +,4,TASK,D,NEW,d,null,null
+                """);
+
+        assertThrows(ManagerFileLoadException.class, () -> FileBackedTaskManager.loadFromFile(path),
+                "Corrupt record in the middle of the log is skipped");
+    }
+
+    @Test
+    public void shouldNameSubtaskOfMissingEpicOnLoad() throws IOException {
+        Path path = Files.createTempFile("temp", ".csv");
+        Files.writeString(path, """
+                id,type,name,status,description,epic,startTime,duration
+                1,EPIC,E,NEW,e
+                2,SUBTASK,S,NEW,s,7,null,null
+                """);
+
+        ManagerFileLoadException e = assertThrows(ManagerFileLoadException.class,
+                () -> FileBackedTaskManager.loadFromFile(path), "Subtask of missing epic is loaded");
+        assertTrue(e.getMessage().contains("Подзадача 2"), "Row is not named: " + e.getMessage());
+    }
+
+    @Test
+    public void shouldSkipTornLastRecordEvenIfItParses() throws IOException {
+        Path path = Files.createTempFile("temp", ".csv");
+        Files.writeString(path, """
+                id,type,name,status,description,epic,startTime,duration
+                1,TASK,A,NEW,a,null,null
+                """);
+        // оборванная запись "-,12"
+        Files.writeString(path.resolveSibling(path.getFileName() + ".log"), """
+                +,12,TASK,B,NEW,b,null,null
+                -,1""");
+
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(path);
+
+        assertEquals(List.of(1, 12), manager.getListOfTasks().stream().map(Task::getId).toList(),
+                "Torn record is applied");
+        assertEquals("-,1", manager.getTornRecord(), "Torn record is not reported");
+    }
+
+    @Test
+    public void shouldPersistWriteBehindChangesAfterFlush() throws IOException {
+        Path path = Files.createTempFile("temp", ".csv");
+        FileBackedTaskManager manager1 = new FileBackedTaskManager(path, WriteBehindLog.FsyncPolicy.EVERY_COMMIT);
+        for (int i = 0; i < 1000; i++) {
+            manager1.createTask(new Task("model.Task " + i, "task", TaskStatus.NEW));
+        }
+        manager1.deleteTaskById(1);
+        manager1.flush();
+
+        FileBackedTaskManager manager2 = FileBackedTaskManager.loadFromFile(path);
+        assertEquals(manager1.getListOfTasks(), manager2.getListOfTasks(), "Flushed changes are not in the file");
+        manager1.close();
+    }
+
+    @Test
+    public void shouldRejectChangeAfterWriteBehindFailure() throws IOException {
+        Path path = Files.createTempFile("temp", ".csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, WriteBehindLog.FsyncPolicy.NEVER);
+        manager.createTask(new Task("model.Task", "task", TaskStatus.NEW));
+        // журнал не откроется для записи
+        Files.createDirectory(path.resolveSibling(path.getFileName() + ".log"));
+        manager.createTask(new Task("model.Task", "task", TaskStatus.NEW));
+        assertThrows(ManagerSaveException.class, manager::flush, "Failed write is not reported");
+
+        assertThrows(ManagerSaveException.class,
+                () -> manager.createTask(new Task("model.Task", "task", TaskStatus.NEW)));
+        assertEquals(2, manager.getListOfTasks().size(), "Change is applied although the log is broken");
+    }
+
+    @Test
+    public void shouldLoadLargeSnapshotInParallelParts() throws IOException {
+        Path path = Files.createTempFile("temp", ".csv");
+        FileBackedTaskManager manager1 = new FileBackedTaskManager(path);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        String padding = "x".repeat(200);
+        Epic epic = null;
+        for (int i = 0; i < 40_000; i++) {
+            if (i % 100 == 0) {
+                epic = new Epic("Epic " + i, padding);
+                manager1.createEpic(epic);
+            } else if (i % 2 == 0) {
+                manager1.createSubtask(new Subtask("Subtask " + i, padding, TaskStatus.DONE, epic.getId(),
+                        start.plusMinutes(30L * i), Duration.ofMinutes(30)));
+            } else {
+                manager1.createTask(new Task("Task " + i, padding, TaskStatus.NEW, start.plusMinutes(30L * i),
+                        Duration.ofMinutes(30)));
+            }
+        }
+        manager1.compact();
+        // части по 4 МБ
+        assertTrue(Files.size(path) > 2 * (4 << 20), "Snapshot is too small to be split into parts");
+
+        long loadStart = System.nanoTime();
+        FileBackedTaskManager manager2 = FileBackedTaskManager.loadFromFile(path);
+        long loadMillis = (System.nanoTime() - loadStart) / 1_000_000;
+
+        assertTrue(loadMillis < 10_000, "Large snapshot is loaded too slowly: " + loadMillis + " ms");
+        assertEquals(manager1.getListOfTasks().toString(), manager2.getListOfTasks().toString());
+        assertEquals(manager1.getListOfEpics().toString(), manager2.getListOfEpics().toString());
+        assertEquals(manager1.getListOfSubtasks().toString(), manager2.getListOfSubtasks().toString());
+        assertEquals(manager1.getPrioritizedTasks(), manager2.getPrioritizedTasks());
+        assertEquals(manager1.getSubtasksOfEpic(epic.getId()), manager2.getSubtasksOfEpic(epic.getId()));
+        assertEquals(TaskStatus.DONE, manager2.getEpicById(epic.getId()).getStatus(), "Epic rollup is not restored");
+        assertEquals(manager1.search("Subtask 39998", 10), manager2.search("Subtask 39998", 10));
+    }
+}
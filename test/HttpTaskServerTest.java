@@ -1,4 +1,5 @@
 import com.google.gson.*;
+import manager.BoardRegistry;
 import manager.InMemoryTaskManager;
 import manager.Managers;
 import manager.TaskManager;
@@ -17,9 +18,12 @@ import server.handler.BaseHttpHandler;
 
 import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -646,5 +650,180 @@ public class HttpTaskServerTest{
         }
     }
 
+    @Test
+    public void shouldReturnTasksPage() throws IOException, InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            manager.createTask(new Task("Task " + i, "Testing paging", TaskStatus.NEW));
+        }
 
+        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder()
+                .GET()
+                .uri(URI.create("http://localhost:8080/tasks?limit=2"))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "Wrong status code for paged /tasks");
+        JsonObject page = JsonParser.parseString(response.body()).getAsJsonObject();
+        assertEquals(2, page.getAsJsonArray("items").size(), "Expected 2 tasks on the first page");
+
+        request = HttpRequest.newBuilder()
+                .GET()
+                .uri(URI.create("http://localhost:8080/tasks?limit=2&cursor=" + page.get("nextCursor").getAsString()))
+                .build();
+        response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        page = JsonParser.parseString(response.body()).getAsJsonObject();
+        assertEquals(1, page.getAsJsonArray("items").size(), "Expected 1 task on the last page");
+        assertFalse(page.has("nextCursor"), "Last page has a cursor");
+    }
+
+    @Test
+    public void shouldSearchTasks() throws IOException, InterruptedException {
+        manager.createTask(new Task("Купить хлеб", "черный", TaskStatus.NEW));
+        manager.createTask(new Task("Купить молоко", "пастеризованное", TaskStatus.NEW));
+
+        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder()
+                .GET()
+                .uri(URI.create("http://localhost:8080/search?q=" + URLEncoder.encode("Хлеб", StandardCharsets.UTF_8)))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "Wrong status code for /search");
+        JsonArray found = JsonParser.parseString(response.body()).getAsJsonArray();
+        assertEquals(1, found.size(), "Expected one task found");
+        assertEquals("Купить хлеб", found.get(0).getAsJsonObject().get("title").getAsString());
+
+        request = HttpRequest.newBuilder().GET().uri(URI.create("http://localhost:8080/search")).build();
+        response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), "Search without query must be rejected");
+    }
+
+    @Test
+    public void shouldReturnFreeSlot() throws IOException, InterruptedException {
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 9, 0);
+        manager.createTask(new Task("Task", "Busy", TaskStatus.NEW, startTime, Duration.ofMinutes(60)));
+
+        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder()
+                .GET()
+                .uri(URI.create("http://localhost:8080/free-slot?duration=PT30M&after=" + startTime))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "Wrong status code for /free-slot");
+        JsonObject slot = JsonParser.parseString(response.body()).getAsJsonObject();
+        assertEquals(startTime.plusMinutes(60).toString(), slot.get("startTime").getAsString());
+
+        request = HttpRequest.newBuilder().GET().uri(URI.create("http://localhost:8080/free-slot")).build();
+        response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), "Slot request without duration must be rejected");
+    }
+
+    @Test
+    public void shouldReturnChangesSinceVersion() throws IOException, InterruptedException {
+        Task task = new Task("Task", "Testing changes", TaskStatus.NEW);
+        manager.createTask(task);
+        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder()
+                .GET()
+                .uri(URI.create("http://localhost:8080/changes"))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(410, response.statusCode(), "Client without a token must resync");
+        JsonObject changes = JsonParser.parseString(response.body()).getAsJsonObject();
+        assertTrue(changes.get("resyncRequired").getAsBoolean());
+        String token = changes.get("token").getAsString();
+
+        manager.updateTaskById(new Task(task.getId(), "Task", "Changed", TaskStatus.DONE));
+        manager.createTask(new Task("Other", "Testing changes", TaskStatus.NEW));
+        request = HttpRequest.newBuilder()
+                .GET()
+                .uri(URI.create("http://localhost:8080/changes?since=" + token))
+                .build();
+        response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "Wrong status code for /changes");
+        changes = JsonParser.parseString(response.body()).getAsJsonObject();
+        JsonArray events = changes.getAsJsonArray("changes");
+        assertEquals(2, events.size(), "Only changes after the version must be returned");
+        assertEquals("Changed", events.get(0).getAsJsonObject().getAsJsonObject("task").get("description").getAsString());
+        assertFalse(changes.get("resyncRequired").getAsBoolean());
+    }
+
+    @Test
+    public void shouldRequireResyncForTokenOfAnotherServerRun() throws IOException, InterruptedException {
+        manager.createTask(new Task("Task", "Testing changes", TaskStatus.NEW));
+        HttpClient httpClient = HttpClient.newHttpClient();
+        // та же версия, но выданная до перезапуска: нумерация началась заново
+        HttpRequest request = HttpRequest.newBuilder()
+                .GET()
+                .uri(URI.create("http://localhost:8080/changes?since=previous-run:0"))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(410, response.statusCode(), "Token of another run is accepted");
+        JsonObject changes = JsonParser.parseString(response.body()).getAsJsonObject();
+        assertTrue(changes.get("resyncRequired").getAsBoolean());
+        assertEquals(0, changes.getAsJsonArray("changes").size());
+
+        request = HttpRequest.newBuilder().GET().uri(URI.create("http://localhost:8080/changes?since=0")).build();
+        assertEquals(410, httpClient.send(request, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Version without epoch is accepted");
+
+        String epoch = changes.get("token").getAsString().split(":")[0];
+        request = HttpRequest.newBuilder()
+                .GET()
+                .uri(URI.create("http://localhost:8080/changes?since=" + epoch + ":x"))
+                .build();
+        assertEquals(400, httpClient.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    public void shouldStreamChangesAsServerSentEvents() throws Exception {
+        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder()
+                .GET()
+                .uri(URI.create("http://localhost:8080/events"))
+                .build();
+        HttpResponse<java.util.stream.Stream<String>> response = httpClient
+                .sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .get(5, java.util.concurrent.TimeUnit.SECONDS);
+        assertEquals(200, response.statusCode(), "Wrong status code for /events");
+        assertEquals("text/event-stream; charset=utf-8", response.headers().firstValue("Content-Type").orElse(""));
+
+        manager.createTask(new Task("Streamed", "Testing events", TaskStatus.NEW));
+        java.util.Iterator<String> lines = response.body().iterator();
+        String id = lines.next();
+        assertTrue(id.startsWith("id: ") && id.endsWith(":1"), "Event id is not a version token: " + id);
+        assertEquals("event: TASK_CREATED", lines.next());
+        String data = lines.next();
+        assertTrue(data.startsWith("data: "), "Event has no data line");
+        JsonObject event = JsonParser.parseString(data.substring("data: ".length())).getAsJsonObject();
+        assertEquals("Streamed", event.getAsJsonObject("task").get("title").getAsString());
+    }
+
+    @Test
+    public void shouldRouteRequestsToBoards() throws IOException, InterruptedException {
+        taskServer.stop();
+        try (BoardRegistry boards = BoardRegistry.open(Files.createTempDirectory("boards"), Duration.ofHours(1), 10)) {
+            taskServer = new HttpTaskServer(manager, boards);
+            taskServer.start();
+            HttpClient httpClient = HttpClient.newHttpClient();
+            HttpRequest request = HttpRequest.newBuilder()
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(new Task("Board task", "Testing boards", TaskStatus.NEW))))
+                    .uri(URI.create("http://localhost:8080/boards/team-a/tasks"))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(201, response.statusCode(), "Wrong status code for board task creation");
+
+            request = HttpRequest.newBuilder().GET().uri(URI.create("http://localhost:8080/boards/team-a/tasks/1")).build();
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            assertEquals("Board task", JsonParser.parseString(response.body()).getAsJsonObject().get("title").getAsString());
+
+            request = HttpRequest.newBuilder().GET().uri(URI.create("http://localhost:8080/boards/team-b/tasks")).build();
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(0, JsonParser.parseString(response.body()).getAsJsonArray().size(), "Boards are not isolated");
+            assertTrue(manager.getListOfTasks().isEmpty(), "Board task leaked into the default manager");
+
+            request = HttpRequest.newBuilder().GET().uri(URI.create("http://localhost:8080/boards/team-a/unknown")).build();
+            assertEquals(404, httpClient.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+    }
 }
@@ -0,0 +1,75 @@
+import org.junit.jupiter.api.Test;
+import utils.IntObjectMap;
+import utils.IntSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectMapTest {
+
+    @Test
+    public void shouldBehaveLikeTreeMapUnderRandomOperations() {
+        Random random = new Random(42);
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Map<Integer, String> expected = new TreeMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5_000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key), "Wrong value removed for key " + key);
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value), "Wrong previous value for key " + key);
+            }
+            assertEquals(expected.size(), map.size(), "Size mismatch");
+        }
+        for (int key = -100; key < 4_900; key++) {
+            assertEquals(expected.get(key), map.get(key), "Wrong value for key " + key);
+            assertEquals(expected.containsKey(key), map.containsKey(key), "Wrong membership for key " + key);
+        }
+        assertEquals(new ArrayList<>(expected.values()), map.values(), "Values are not ordered by key");
+        List<Integer> keys = new ArrayList<>();
+        map.forEachKey(keys::add);
+        assertEquals(new ArrayList<>(expected.keySet()), keys, "Keys are not ordered");
+        List<String> tail = new ArrayList<>(((TreeMap<Integer, String>) expected).tailMap(2_000, false).values());
+        assertEquals(tail.subList(0, 10), map.valuesAfter(2_000, 10, value -> true), "Wrong page after key");
+    }
+
+    @Test
+    public void intSetShouldKeepValuesOrdered() {
+        IntSet set = new IntSet();
+        assertTrue(set.add(3));
+        assertTrue(set.add(1));
+        assertTrue(set.add(2));
+        assertFalse(set.add(1), "Duplicate value was added");
+        assertTrue(set.remove(1));
+        assertFalse(set.contains(1));
+        set.add(1);
+        assertArrayEquals(new int[]{1, 2, 3}, set.toArray(), "Values are not ordered");
+    }
+
+    @Test
+    public void shouldKeepOrderForDescendingInsertsAndRemovals() {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        for (int key = 100_000; key > 0; key--) {
+            map.put(key, key);
+        }
+        for (int key = 1; key <= 100_000; key++) {
+            if (key % 3 != 0) {
+                map.remove(key);
+            }
+        }
+        List<Integer> keys = new ArrayList<>();
+        map.forEachKey(keys::add);
+        assertEquals(33_333, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(3 * (i + 1), (int) keys.get(i), "Keys are not ordered after splits and merges");
+        }
+        assertEquals(List.of(50_001, 50_004), map.valuesAfter(49_999, 2, value -> true));
+        assertEquals(keys, map.values());
+    }
+}
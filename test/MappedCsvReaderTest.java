@@ -0,0 +1,112 @@
+import manager.MappedCsvReader;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedCsvReaderTest {
+
+    private static List<Task> readAll(String content) throws IOException {
+        Path path = Files.createTempFile("mapped", ".csv");
+        Files.writeString(path, content);
+        List<Task> rows = new ArrayList<>();
+        try (MappedCsvReader reader = new MappedCsvReader(path)) {
+            Task task;
+            while ((task = reader.next()) != null) {
+                rows.add(task);
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void shouldDecodeAllRowKinds() throws IOException {
+        List<Task> rows = readAll("id,type,name,status,description,epic,startTime,duration\n"
+                + "1,TASK,Task,IN_PROGRESS,task,2024-01-01T09:00,30\n"
+                + "2,EPIC,Epic,NEW,epic\n"
+                + "3,SUBTASK,Sub,DONE,sub,2,2024-01-01T10:00:15.5,-5\n"
+                + "4,TASK,null,NEW,,null,null");
+
+        assertEquals(4, rows.size());
+        Task task = rows.get(0);
+        assertEquals("Task", task.getTitle());
+        assertEquals(TaskStatus.IN_PROGRESS, task.getStatus());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 9, 0), task.getStartTime());
+        assertEquals(Duration.ofMinutes(30), task.getDuration());
+        assertTrue(rows.get(1) instanceof Epic);
+        assertEquals("epic", rows.get(1).getDescription());
+        Subtask subtask = (Subtask) rows.get(2);
+        assertEquals(2, subtask.getEpicId());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 0, 15, 500_000_000), subtask.getStartTime());
+        assertEquals(Duration.ofMinutes(-5), subtask.getDuration());
+        Task empty = rows.get(3);
+        assertEquals("null", empty.getTitle(), "Text fields are read as written, like the line-based loader");
+        assertEquals("", empty.getDescription());
+        assertNull(empty.getStartTime());
+        assertNull(empty.getDuration());
+    }
+
+    @Test
+    public void shouldSplitLinesLikeBufferedReader() throws IOException {
+        List<Task> rows = readAll("header\r\n1,EPIC,a,NEW,b\r\n2,EPIC,c,NEW,d\r3,EPIC,e,NEW,f\n");
+
+        assertEquals(List.of(1, 2, 3), rows.stream().map(Task::getId).toList());
+        assertEquals("f", rows.get(2).getDescription());
+    }
+
+    @Test
+    public void shouldFallBackToLineParserForUnusualRows() throws IOException {
+        List<Task> rows = readAll("header\n"
+                + "+1,TASK,Task,NEW,task,+12024-01-01T09:00,+30\n"
+                + "2,EPIC,Epic,NEW,epic,ignored\n");
+
+        assertEquals(1, rows.get(0).getId());
+        assertEquals(LocalDateTime.of(12024, 1, 1, 9, 0), rows.get(0).getStartTime());
+        assertEquals(Duration.ofMinutes(30), rows.get(0).getDuration());
+        assertEquals("epic", rows.get(1).getDescription());
+        assertThrows(IndexOutOfBoundsException.class, () -> readAll("header\n1,TASK,Task,NEW,"));
+        assertThrows(RuntimeException.class, () -> readAll("header\n1,TASK,Task,NEW,task,2024-13-01T09:00,30\n"));
+    }
+
+    @Test
+    public void shouldReadEmptyFile() throws IOException {
+        assertEquals(List.of(), readAll(""));
+        assertEquals(List.of(), readAll("id,type,name,status,description,epic,startTime,duration\n"));
+    }
+
+    @Test
+    public void shouldReadSameRowsFromLineAlignedParts() throws IOException {
+        Path path = Files.createTempFile("mapped", ".csv");
+        Files.writeString(path, "header\r\n1,EPIC,a,NEW,b\n2,EPIC,c,NEW,d\r\n3,EPIC,e,NEW,f\r4,EPIC,g,NEW,h");
+        List<Integer> expected = List.of(1, 2, 3, 4);
+
+        for (int parts = 1; parts <= Files.size(path); parts++) {
+            long[] bounds = MappedCsvReader.splitLines(path, parts);
+            assertEquals(0, bounds[0]);
+            assertEquals(Files.size(path), bounds[bounds.length - 1]);
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                assertTrue(bounds[i] < bounds[i + 1], "Bounds are not increasing for " + parts + " parts");
+                try (MappedCsvReader reader = new MappedCsvReader(path, bounds[i], bounds[i + 1])) {
+                    Task task;
+                    while ((task = reader.next()) != null) {
+                        ids.add(task.getId());
+                    }
+                }
+            }
+            assertEquals(expected, ids, "Parts " + parts + " at " + Arrays.toString(bounds));
+        }
+    }
+}
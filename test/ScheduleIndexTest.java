@@ -0,0 +1,64 @@
+import manager.ScheduleIndex;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleIndexTest {
+    private static final LocalDateTime TEN = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    private ScheduleIndex index;
+
+    @BeforeEach
+    public void beforeEach() {
+        index = new ScheduleIndex();
+        index.add(task(1, TEN, Duration.ofHours(2)));
+        // задача нулевой длины с тем же началом и большим id
+        index.add(task(2, TEN, Duration.ZERO));
+    }
+
+    private static Task task(int id, LocalDateTime startTime, Duration duration) {
+        return new Task(id, "model.Task", "task", TaskStatus.NEW, startTime, duration);
+    }
+
+    @Test
+    public void overlaps_shouldSeeLongTaskBehindZeroLengthTaskWithSameStart() {
+        assertTrue(index.overlaps(task(3, TEN.plusHours(1), Duration.ofMinutes(30))),
+                "Task inside [10:00, 12:00) is accepted");
+        assertTrue(index.overlaps(task(3, TEN.plusHours(1), Duration.ZERO)),
+                "Zero-length task inside [10:00, 12:00) is accepted");
+        assertTrue(index.overlaps(task(3, TEN.minusHours(1), Duration.ofHours(3))),
+                "Task covering both entries is accepted");
+        assertFalse(index.overlaps(task(3, TEN.plusHours(2), Duration.ofMinutes(30))),
+                "Task starting at the end of [10:00, 12:00) is rejected");
+        assertFalse(index.overlaps(task(3, TEN, Duration.ZERO)), "Zero-length tasks at the same time collide");
+    }
+
+    @Test
+    public void tasksBetween_shouldReturnLongTaskBehindZeroLengthTaskWithSameStart() {
+        assertEquals(List.of(1), ids(index.tasksBetween(TEN.plusMinutes(30), TEN.plusMinutes(45))),
+                "Running task is lost behind the zero-length one");
+        assertEquals(List.of(1, 2), ids(index.tasksBetween(TEN, TEN.plusMinutes(45))),
+                "Window starting with both entries is wrong");
+        assertEquals(List.of(), ids(index.tasksBetween(TEN.plusHours(2), TEN.plusHours(3))),
+                "Task ending at 'from' is included");
+    }
+
+    @Test
+    public void findFreeSlot_shouldSkipLongTaskBehindZeroLengthTaskWithSameStart() {
+        assertEquals(TEN.plusHours(2), index.findFreeSlot(TEN.plusMinutes(30), Duration.ofMinutes(30)),
+                "Slot inside [10:00, 12:00) is offered");
+        assertEquals(TEN.minusMinutes(30), index.findFreeSlot(TEN.minusMinutes(30), Duration.ofMinutes(30)),
+                "Slot ending at 10:00 is not offered");
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
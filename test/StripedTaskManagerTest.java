@@ -0,0 +1,105 @@
+import manager.Managers;
+import manager.StripedTaskManager;
+import model.Epic;
+import model.Subtask;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedTaskManagerTest extends TaskManagerTest<StripedTaskManager> {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 300;
+
+    @Override
+    protected StripedTaskManager createManager() {
+        return (StripedTaskManager) Managers.getStriped();
+    }
+
+    @Test
+    public void shouldKeepEpicsConsistentUnderParallelSubtaskWrites() throws Exception {
+        LocalDateTime base = LocalDateTime.now();
+        Duration duration = Duration.ofMinutes(10);
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Epic epic = new Epic("model.Epic", "epic");
+            manager.createEpic(epic);
+            epics.add(epic);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                int epicId = epics.get(thread).getId();
+                for (int i = 0; i < OPERATIONS; i++) {
+                    LocalDateTime slot = base.plusMinutes(10L * (thread * OPERATIONS + i));
+                    Subtask subtask = new Subtask("model.Subtask", "subtask", TaskStatus.NEW, epicId, slot, duration);
+                    manager.createSubtask(subtask);
+                    manager.updateSubtaskById(new Subtask(subtask.getId(), "model.Subtask", "subtask",
+                            TaskStatus.DONE, epicId, slot, duration));
+                    if (i % 2 == 0) {
+                        manager.deleteSubtaskById(subtask.getId());
+                    }
+                    manager.getPrioritizedTasks();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        int perEpic = OPERATIONS / 2;
+        assertEquals(THREADS * perEpic, manager.getListOfSubtasks().size(), "Lost or duplicated subtasks");
+        assertEquals(THREADS * perEpic, manager.getPrioritizedTasks().size(), "Schedule index is out of sync");
+        for (Epic epic : epics) {
+            List<Subtask> subtasks = manager.getSubtasksOfEpic(epic.getId());
+            assertEquals(perEpic, subtasks.size(), "model.Epic's subtask list is inconsistent");
+            assertEquals(TaskStatus.DONE, epic.getStatus(), "model.Epic's status rollup is inconsistent");
+            assertEquals(subtasks.get(0).getStartTime(), epic.getStartTime(), "model.Epic's start time rollup is inconsistent");
+            assertEquals(subtasks.get(perEpic - 1).getEndTime(), epic.getEndTime(), "model.Epic's end time rollup is inconsistent");
+        }
+    }
+
+    @Test
+    public void epicReadsShouldNotSeeLaterSubtaskWrites() throws Exception {
+        Epic epic = new Epic("model.Epic", "epic");
+        manager.createEpic(epic);
+        Epic read = manager.getEpicById(epic.getId());
+        Epic listed = manager.getListOfEpics().get(0);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                manager.createSubtask(new Subtask("model.Subtask", "subtask", TaskStatus.DONE, epic.getId()));
+            }
+        });
+        while (!writer.isDone()) {
+            for (Epic copy : List.of(manager.getEpicById(epic.getId()), manager.getListOfEpics().get(0))) {
+                assertEquals(copy.getSubtaskIds().size(), copy.getSubtaskIds().toArray().length, "Torn epic");
+            }
+        }
+        writer.get(1, TimeUnit.MINUTES);
+        executor.shutdown();
+
+        assertTrue(read.getSubtaskIds().isEmpty(), "Epic handed out by getEpicById changed");
+        assertEquals(TaskStatus.NEW, listed.getStatus(), "Epic handed out by getListOfEpics changed");
+        assertEquals(OPERATIONS, manager.getEpicById(epic.getId()).getSubtaskIds().size());
+    }
+}
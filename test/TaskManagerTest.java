@@ -1,13 +1,19 @@
+import manager.BaseTaskManager;
+import manager.TaskBatch;
+import manager.TaskEvent;
 import manager.TaskManager;
+import manager.TaskPage;
 import model.Epic;
 import model.Subtask;
 import model.Task;
 import model.TaskStatus;
+import model.TaskType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -47,6 +53,253 @@ abstract class TaskManagerTest<T extends TaskManager>  {
         assertEquals(epic.getEndTime(), sb1.getEndTime(), "Deleting latest subtask is not changing epics end time");
     }
 
+    @Test
+    public void shouldResetEpicAfterRemovingLastSubtask() {
+        Epic epic = new Epic("model.Epic", "epic");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Sb", "sb", TaskStatus.DONE, epic.getId(),
+                LocalDateTime.now(), Duration.ofMinutes(30));
+        manager.createSubtask(subtask);
+        manager.updateSubtaskById(new Subtask(subtask.getId(), "Sb", "sb", TaskStatus.IN_PROGRESS, epic.getId()));
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus(), "model.Epic's status is not updated with subtask");
+        assertNull(epic.getStartTime(), "model.Epic keeps start time of subtask that lost its time");
+        manager.deleteSubtaskById(subtask.getId());
+        assertEquals(TaskStatus.NEW, epic.getStatus(), "model.Epic without subtasks is not NEW");
+        assertNull(epic.getEndTime(), "model.Epic without subtasks keeps end time");
+    }
+
+    @Test
+    public void shouldCountTasksByStatus() {
+        Task task = new Task("model.Task", "task", TaskStatus.NEW);
+        manager.createTask(task);
+        Epic epic = new Epic("model.Epic", "epic");
+        manager.createEpic(epic);
+        Subtask subtask1 = new Subtask("Sb", "sb", TaskStatus.IN_PROGRESS, epic.getId());
+        Subtask subtask2 = new Subtask("Sb", "sb", TaskStatus.IN_PROGRESS, epic.getId());
+        manager.createSubtask(subtask1);
+        manager.createSubtask(subtask2);
+        assertEquals(2, manager.getCountByStatus(TaskType.SUBTASK, TaskStatus.IN_PROGRESS));
+        assertArrayEquals(new int[]{epic.getId()}, manager.getIdsByStatus(TaskType.EPIC, TaskStatus.IN_PROGRESS),
+                "model.Epic status index is not updated with subtasks");
+
+        manager.updateTaskById(new Task(task.getId(), "model.Task", "task", TaskStatus.DONE));
+        manager.updateSubtaskById(new Subtask(subtask1.getId(), "Sb", "sb", TaskStatus.DONE, epic.getId()));
+        manager.deleteSubtaskById(subtask2.getId());
+        assertEquals(0, manager.getCountByStatus(TaskType.TASK, TaskStatus.NEW));
+        assertArrayEquals(new int[]{task.getId()}, manager.getIdsByStatus(TaskType.TASK, TaskStatus.DONE));
+        assertArrayEquals(new int[]{subtask1.getId()}, manager.getIdsByStatus(TaskType.SUBTASK, TaskStatus.DONE));
+        assertEquals(0, manager.getCountByStatus(TaskType.SUBTASK, TaskStatus.IN_PROGRESS));
+        assertEquals(1, manager.getCountByStatus(TaskType.EPIC, TaskStatus.DONE));
+
+        manager.deleteAllEpics();
+        assertEquals(0, manager.getCountByStatus(TaskType.SUBTASK, TaskStatus.DONE), "Subtasks stay in status index");
+        assertEquals(0, manager.getCountByStatus(TaskType.EPIC, TaskStatus.DONE), "Epics stay in status index");
+    }
+
+    @Test
+    public void shouldKeepStatusIdsOrderedAfterUpdatesOfOldTasks() {
+        for (int i = 0; i < 2_000; i++) {
+            manager.createTask(new Task("model.Task", "task", TaskStatus.NEW));
+        }
+        int[] done = new int[2_000 / 7];
+        for (int i = done.length - 1; i >= 0; i--) {
+            done[i] = 7 * (i + 1);
+            manager.updateTaskById(new Task(done[i], "model.Task", "task", TaskStatus.DONE));
+            manager.updateTaskById(new Task(done[i], "model.Task", "task again", TaskStatus.DONE));
+        }
+        assertArrayEquals(done, manager.getIdsByStatus(TaskType.TASK, TaskStatus.DONE));
+        assertEquals(2_000 - done.length, manager.getCountByStatus(TaskType.TASK, TaskStatus.NEW));
+    }
+
+    @Test
+    public void search_shouldFindTasksByAllWords() {
+        Task task = new Task("Купить хлеб", "Чёрный, бездрожжевой", TaskStatus.NEW);
+        manager.createTask(task);
+        Epic epic = new Epic("Приготовить ужин", "хлеб и суп");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Сварить суп", "из черного хлеба", TaskStatus.NEW, epic.getId());
+        manager.createSubtask(subtask);
+
+        assertEquals(List.of(task, epic), manager.search("ХЛЕБ", 10), "Search is not case-insensitive");
+        assertEquals(List.of(task), manager.search("черный", 10), "ё is not folded to е");
+        assertEquals(List.of(epic), manager.search("суп хлеб", 1), "Limit is not applied");
+        assertTrue(manager.search("суп пирог", 10).isEmpty(), "Search must match all words");
+
+        manager.updateTaskById(new Task(task.getId(), "Купить молоко", "", TaskStatus.NEW));
+        assertEquals(List.of(epic), manager.search("хлеб", 10), "Updated task is found by old title");
+        manager.deleteEpicById(epic.getId());
+        assertTrue(manager.search("суп", 10).isEmpty(), "Deleted epic's subtasks are still indexed");
+    }
+
+    @Test
+    public void search_shouldKeepIdsOrderedAfterRetitlingOldTasks() {
+        for (int i = 0; i < 1_000; i++) {
+            manager.createTask(new Task("Задача " + i, "отчёт", TaskStatus.NEW));
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int id = 1; id <= 1_000; id += 7) {
+            expected.add(id);
+        }
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            int id = expected.get(i);
+            manager.updateTaskById(new Task(id, "Срочная задача", "отчёт", TaskStatus.NEW));
+        }
+        List<Integer> found = new ArrayList<>();
+        for (Task task : manager.search("срочная отчёт", 1_000)) {
+            found.add(task.getId());
+        }
+        assertEquals(expected, found, "Retitled tasks are not found in id order");
+        assertEquals(1_000, manager.search("отчёт", 2_000).size(), "Unchanged word lost its postings");
+        assertEquals(1, manager.search("задача 2", 10).size(), "Dropped words are still indexed");
+    }
+
+    @Test
+    public void getTasksBetween_shouldIncludeTaskStartedBeforeWindow() {
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Duration duration = Duration.ofMinutes(60);
+        Task early = new Task("model.Task", "task", TaskStatus.NEW, startTime, duration);
+        Task running = new Task("model.Task", "task", TaskStatus.NEW, startTime.plusHours(2), duration);
+        Task inside = new Task("model.Task", "task", TaskStatus.NEW, startTime.plusHours(3), duration);
+        Task late = new Task("model.Task", "task", TaskStatus.NEW, startTime.plusHours(5), duration);
+        manager.createTask(late);
+        manager.createTask(inside);
+        manager.createTask(running);
+        manager.createTask(early);
+        manager.createTask(new Task("model.Task", "unscheduled", TaskStatus.NEW));
+
+        List<Task> window = manager.getTasksBetween(startTime.plusHours(2).plusMinutes(30), startTime.plusHours(5));
+        assertEquals(List.of(running, inside), window, "Window must include running task and exclude the one at 'to'");
+        assertTrue(manager.getTasksBetween(startTime.plusHours(1), startTime.plusHours(2)).isEmpty(),
+                "Task ending at 'from' must not be included");
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.getTasksBetween(startTime.plusHours(1), startTime), "Reversed window is accepted");
+    }
+
+    @Test
+    public void scheduleQueries_shouldSeeLongTaskSharingStartWithZeroLengthOne() {
+        LocalDateTime ten = LocalDateTime.of(2024, 1, 1, 10, 0);
+        Task busy = new Task("model.Task", "task", TaskStatus.NEW, ten, Duration.ofHours(2));
+        manager.createTask(busy);
+        manager.createTask(new Task("model.Task", "mark", TaskStatus.NEW, ten, Duration.ZERO));
+
+        assertThrows(IllegalStateException.class, () -> manager.createTask(
+                new Task("model.Task", "task", TaskStatus.NEW, ten.plusHours(1), Duration.ofMinutes(30))),
+                "Task inside [10:00, 12:00) is accepted");
+        assertThrows(IllegalStateException.class, () -> manager.applyBatch(new TaskBatch().createTask(
+                new Task("model.Task", "task", TaskStatus.NEW, ten.plusHours(1), Duration.ofMinutes(30)))),
+                "Batch task inside [10:00, 12:00) is accepted");
+        assertEquals(List.of(busy.getId()), manager.getTasksBetween(ten.plusMinutes(30), ten.plusMinutes(45))
+                .stream().map(Task::getId).toList(), "Running task is lost behind the zero-length one");
+        assertEquals(ten.plusHours(2), manager.findFreeSlot(ten.plusMinutes(30), Duration.ofMinutes(30)),
+                "Free slot is inside [10:00, 12:00)");
+    }
+
+    @Test
+    public void findFreeSlot_shouldReturnEarliestGapThatFits() {
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 9, 0);
+        manager.createTask(new Task("model.Task", "task", TaskStatus.NEW, startTime, Duration.ofMinutes(60)));
+        manager.createTask(new Task("model.Task", "task", TaskStatus.NEW, startTime.plusMinutes(90), Duration.ofMinutes(60)));
+        manager.createTask(new Task("model.Task", "task", TaskStatus.NEW, startTime.plusMinutes(180), Duration.ofMinutes(60)));
+
+        assertEquals(startTime.plusMinutes(60), manager.findFreeSlot(startTime.plusMinutes(30), Duration.ofMinutes(30)),
+                "Slot must start after the running task");
+        assertEquals(startTime.plusMinutes(240), manager.findFreeSlot(startTime, Duration.ofMinutes(31)),
+                "Too small gaps must be skipped");
+        assertEquals(startTime.minusHours(1), manager.findFreeSlot(startTime.minusHours(1), Duration.ofMinutes(60)),
+                "Slot that ends exactly at the next task must be accepted");
+        Task placed = new Task("model.Task", "task", TaskStatus.NEW,
+                manager.findFreeSlot(startTime, Duration.ofMinutes(30)), Duration.ofMinutes(30));
+        assertDoesNotThrow(() -> manager.createTask(placed), "Found slot overlaps with existing tasks");
+        assertThrows(IllegalArgumentException.class, () -> manager.findFreeSlot(startTime, Duration.ZERO));
+    }
+
+    @Test
+    public void shouldPublishEventsWithConsecutiveVersions() {
+        List<TaskEvent> events = new java.util.ArrayList<>();
+        manager.addListener(events::add);
+        Epic epic = new Epic("model.Epic", "epic");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Sb", "sb", TaskStatus.DONE, epic.getId());
+        manager.createSubtask(subtask);
+        manager.deleteSubtaskById(subtask.getId());
+        manager.deleteTaskById(100);
+
+        assertEquals(List.of(TaskEvent.Kind.TASK_CREATED, TaskEvent.Kind.TASK_CREATED, TaskEvent.Kind.EPIC_ROLLED_UP,
+                        TaskEvent.Kind.TASK_DELETED, TaskEvent.Kind.EPIC_ROLLED_UP),
+                events.stream().map(TaskEvent::kind).toList(), "Wrong events are published");
+        assertEquals(TaskType.SUBTASK, events.get(1).type());
+        assertEquals(subtask.getId(), events.get(3).id());
+        for (int i = 1; i < events.size(); i++) {
+            assertEquals(events.get(i - 1).version() + 1, events.get(i).version(), "Versions are not consecutive");
+        }
+    }
+
+    @Test
+    public void applyBatch_shouldCompleteWhenListenerThrows() {
+        List<TaskEvent> events = new ArrayList<>();
+        manager.addListener(event -> {
+            throw new IllegalStateException("listener failure");
+        });
+        manager.addListener(events::add);
+        Epic epic = new Epic("model.Epic", "epic");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Sb", "sb", TaskStatus.DONE, epic.getId());
+
+        assertDoesNotThrow(() -> manager.applyBatch(new TaskBatch()
+                .createTask(new Task("model.Task", "task", TaskStatus.NEW))
+                .createSubtask(subtask)), "Listener failure breaks the batch");
+
+        assertEquals(1, manager.getListOfTasks().size(), "Batch is applied partially");
+        assertEquals(1, manager.getListOfSubtasks().size(), "Batch is applied partially");
+        assertEquals(TaskStatus.DONE, manager.getEpicById(epic.getId()).getStatus(), "Epic rollup is skipped");
+        assertEquals(4, events.size(), "Other listeners miss events after a failure");
+        if (manager instanceof BaseTaskManager base) {
+            assertEquals(4, (int) base.getListenerFailureCount(), "Listener failures are not counted");
+            assertEquals("listener failure", base.getListenerFailure().getMessage());
+        }
+    }
+
+    @Test
+    public void events_shouldKeepTaskStateAtTimeOfChange() {
+        List<TaskEvent> events = new ArrayList<>();
+        manager.addListener(events::add);
+        Epic epic = new Epic("model.Epic", "epic");
+        manager.createEpic(epic);
+        manager.createSubtask(new Subtask("Sb", "sb", TaskStatus.DONE, epic.getId()));
+
+        Epic created = (Epic) events.get(0).task();
+        assertEquals(TaskStatus.NEW, created.getStatus(), "Later rollup changed the published epic");
+        assertTrue(created.getSubtaskIds().isEmpty(), "Later subtask changed the published epic");
+        assertEquals(TaskStatus.DONE, events.get(2).task().getStatus(), "Rollup event misses the new status");
+    }
+
+    @Test
+    public void subtaskOfMissingEpic_shouldBeRejectedWithoutChanges() {
+        List<TaskEvent> events = new ArrayList<>();
+        manager.addListener(events::add);
+        Epic epic = new Epic("model.Epic", "epic");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Sb", "sb", TaskStatus.NEW, epic.getId());
+        manager.createSubtask(subtask);
+        int published = events.size();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.createSubtask(new Subtask("Orphan", "orphan", TaskStatus.NEW, 100)),
+                "Subtask of missing epic is accepted");
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.updateSubtaskById(new Subtask(subtask.getId(), "Moved", "moved", TaskStatus.DONE, 100)),
+                "Subtask is moved to missing epic");
+
+        assertEquals(published, events.size(), "Rejected subtask is published");
+        assertEquals(List.of(subtask), manager.getListOfSubtasks(), "Rejected subtask is stored");
+        assertEquals("Sb", manager.getSubtaskById(subtask.getId()).getTitle(), "Subtask is changed");
+        assertTrue(manager.search("orphan", 10).isEmpty(), "Rejected subtask is indexed");
+        assertTrue(manager.search("moved", 10).isEmpty(), "Rejected update is indexed");
+        Task task = new Task("model.Task", "task", TaskStatus.NEW);
+        manager.createTask(task);
+        assertEquals(subtask.getId() + 1, task.getId(), "Rejected subtask took an id");
+    }
+
     @Test
     public void shouldNotCreateTasksWithOverlappingTimes() {
         LocalDateTime startTime = LocalDateTime.now();
@@ -67,6 +320,22 @@ abstract class TaskManagerTest<T extends TaskManager>  {
                 "model.Task with overlapping interval is not throwing exception");
     }
 
+    @Test
+    public void shouldValidateUpdatedTaskAgainstNeighboursOnly() {
+        LocalDateTime startTime = LocalDateTime.now();
+        Duration duration = Duration.ofMinutes(30);
+        Task task1 = new Task("model.Task", "task", TaskStatus.NEW, startTime, duration);
+        Task task2 = new Task("model.Task", "task", TaskStatus.NEW, startTime.plusHours(1), duration);
+        manager.createTask(task1);
+        manager.createTask(task2);
+        assertDoesNotThrow(() -> manager.updateTaskById(
+                        new Task(task1.getId(), "model.Task", "task", TaskStatus.NEW, startTime.plusMinutes(15), duration)),
+                "model.Task is shown as overlapping with its own previous interval");
+        assertThrows(IllegalStateException.class, () -> manager.updateTaskById(
+                        new Task(task1.getId(), "model.Task", "task", TaskStatus.NEW, startTime.plusMinutes(45), duration)),
+                "Updated model.Task overlapping with the next task is not throwing exception");
+    }
+
     @Test
     public void getPrioritizedTasks_returnsTasksSortedByStartTime() {
         LocalDateTime startTime = LocalDateTime.now();
@@ -82,6 +351,129 @@ abstract class TaskManagerTest<T extends TaskManager>  {
         assertEquals(List.of(task1, subtask, task2), manager.getPrioritizedTasks(), "Method getPrioritizedTasks is not functioning right");
     }
 
+    @Test
+    public void getPrioritizedTasks_keepsTasksWithEqualStartTime() {
+        LocalDateTime startTime = LocalDateTime.now();
+        Task task1 = new Task("model.Task", "task", TaskStatus.NEW, startTime, null);
+        Task task2 = new Task("model.Task", "task", TaskStatus.NEW, startTime, null);
+        manager.createTask(task1);
+        manager.createTask(task2);
+        assertEquals(List.of(task1, task2), manager.getPrioritizedTasks(),
+                "Tasks with equal start time are lost from prioritized list");
+        manager.deleteTaskById(task1.getId());
+        assertEquals(List.of(task2), manager.getPrioritizedTasks(),
+                "Deleting a task removes another task with the same start time");
+    }
+
+    @Test
+    public void applyBatch_shouldApplyAllOperations() {
+        LocalDateTime startTime = LocalDateTime.now();
+        Duration duration = Duration.ofMinutes(30);
+        Epic epic = new Epic("model.Epic", "epic");
+        manager.createEpic(epic);
+        Task oldTask = new Task("model.Task", "task", TaskStatus.NEW, startTime, duration);
+        manager.createTask(oldTask);
+        Task newTask = new Task("model.Task", "task", TaskStatus.NEW, startTime, duration);
+        Subtask subtask1 = new Subtask("model.Subtask", "subtask", TaskStatus.DONE, epic.getId(),
+                startTime.plusHours(1), duration);
+        Subtask subtask2 = new Subtask("model.Subtask", "subtask", TaskStatus.DONE, epic.getId(),
+                startTime.plusHours(2), duration);
+        manager.applyBatch(new TaskBatch()
+                .deleteTask(oldTask.getId())
+                .createTask(newTask)
+                .createSubtask(subtask1)
+                .createSubtask(subtask2));
+        assertEquals(List.of(newTask), manager.getListOfTasks(), "Batch did not replace the task in the freed slot");
+        assertEquals(List.of(newTask, subtask1, subtask2), manager.getPrioritizedTasks());
+        assertEquals(TaskStatus.DONE, epic.getStatus(), "model.Epic's status is not rolled up after batch");
+        assertEquals(subtask2.getEndTime(), epic.getEndTime(), "model.Epic's time is not rolled up after batch");
+    }
+
+    @Test
+    public void applyBatch_shouldCreateEpicTogetherWithItsSubtasks() {
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Epic epic = new Epic("model.Epic", "epic");
+        Subtask subtask1 = new Subtask("model.Subtask", "subtask", TaskStatus.DONE, 0, startTime, Duration.ofMinutes(30));
+        Subtask subtask2 = new Subtask("model.Subtask", "subtask", TaskStatus.DONE, 0);
+
+        manager.applyBatch(new TaskBatch()
+                .createEpic(epic)
+                .createSubtask(subtask1, epic)
+                .createSubtask(subtask2, epic));
+
+        assertEquals(List.of(subtask1.getId(), subtask2.getId()),
+                manager.getSubtasksOfEpic(epic.getId()).stream().map(Task::getId).toList(),
+                "Subtasks are not linked to the epic created in the same batch");
+        assertEquals(epic.getId(), manager.getSubtaskById(subtask1.getId()).getEpicId());
+        assertEquals(TaskStatus.DONE, manager.getEpicById(epic.getId()).getStatus(), "Epic rollup is skipped");
+
+        Epic outside = new Epic("model.Epic", "not in batch");
+        assertThrows(IllegalArgumentException.class, () -> manager.applyBatch(new TaskBatch()
+                        .createTask(new Task("model.Task", "task", TaskStatus.NEW))
+                        .createSubtask(new Subtask("model.Subtask", "subtask", TaskStatus.NEW, 0), outside)),
+                "Subtask of an epic missing from the batch is accepted");
+        assertEquals(0, manager.getListOfTasks().size(), "Rejected batch is applied partially");
+    }
+
+    @Test
+    public void applyBatch_shouldRejectWholeBatchWithOverlaps() {
+        LocalDateTime startTime = LocalDateTime.now();
+        Duration duration = Duration.ofMinutes(30);
+        Task existing = new Task("model.Task", "task", TaskStatus.NEW, startTime, duration);
+        manager.createTask(existing);
+        TaskBatch conflictingWithExisting = new TaskBatch()
+                .createTask(new Task("model.Task", "task", TaskStatus.NEW, startTime.plusHours(1), duration))
+                .createTask(new Task("model.Task", "task", TaskStatus.NEW, startTime.plusMinutes(10), duration));
+        assertThrows(IllegalStateException.class, () -> manager.applyBatch(conflictingWithExisting),
+                "Batch overlapping existing task is not rejected");
+        TaskBatch conflictingInside = new TaskBatch()
+                .createTask(new Task("model.Task", "task", TaskStatus.NEW, startTime.plusHours(1), duration))
+                .createTask(new Task("model.Task", "task", TaskStatus.NEW, startTime.plusHours(1), duration));
+        assertThrows(IllegalStateException.class, () -> manager.applyBatch(conflictingInside),
+                "Batch with overlapping operations is not rejected");
+        assertEquals(List.of(existing), manager.getListOfTasks(), "Rejected batch was partially applied");
+        assertEquals(List.of(existing), manager.getPrioritizedTasks(), "Rejected batch changed the schedule");
+    }
+
+    @Test
+    public void getTasksPage_shouldWalkAllTasksWithCursor() {
+        List<Task> created = new java.util.ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Task task = new Task("model.Task", "task", i % 2 == 0 ? TaskStatus.NEW : TaskStatus.DONE);
+            manager.createTask(task);
+            created.add(task);
+        }
+        TaskPage<Task> first = manager.getTasksPage(2, null, null);
+        assertEquals(created.subList(0, 2), first.items(), "First page is wrong");
+        TaskPage<Task> second = manager.getTasksPage(2, first.nextCursor(), null);
+        assertEquals(created.subList(2, 4), second.items(), "Second page is wrong");
+        manager.deleteTaskById(created.get(4).getId());
+        TaskPage<Task> last = manager.getTasksPage(2, second.nextCursor(), null);
+        assertTrue(last.items().isEmpty(), "Deleted task is still paged");
+        assertNull(last.nextCursor(), "Cursor is returned after the last page");
+        TaskPage<Task> done = manager.getTasksPage(10, null, TaskStatus.DONE);
+        assertEquals(List.of(created.get(1), created.get(3)), done.items(), "Status filter is not applied");
+    }
+
+    @Test
+    public void getPrioritizedPage_shouldWalkScheduleByStartTime() {
+        LocalDateTime startTime = LocalDateTime.now();
+        Duration duration = Duration.ofMinutes(30);
+        Task task1 = new Task("model.Task", "task", TaskStatus.NEW, startTime.plusHours(2), duration);
+        Task task2 = new Task("model.Task", "task", TaskStatus.NEW, startTime, duration);
+        Task task3 = new Task("model.Task", "task", TaskStatus.NEW, startTime.plusHours(1), duration);
+        manager.createTask(task1);
+        manager.createTask(task2);
+        manager.createTask(task3);
+        TaskPage<Task> first = manager.getPrioritizedPage(2, null, null);
+        assertEquals(List.of(task2, task3), first.items(), "First page is not ordered by start time");
+        TaskPage<Task> second = manager.getPrioritizedPage(2, first.nextCursor(), null);
+        assertEquals(List.of(task1), second.items(), "Second page is wrong");
+        assertNull(second.nextCursor());
+        assertThrows(IllegalArgumentException.class, () -> manager.getPrioritizedPage(2, "garbage", null),
+                "Invalid cursor is accepted");
+    }
+
     @Test
     public void shouldAssignEndTimeCorrectlyForTasksNSubtasks() {
         LocalDateTime startTime = LocalDateTime.now();
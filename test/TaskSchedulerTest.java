@@ -0,0 +1,147 @@
+import manager.InMemoryTaskManager;
+import manager.TaskManager;
+import manager.TaskScheduler;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskSchedulerTest {
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    private TaskManager manager;
+
+    @BeforeEach
+    public void beforeEach() {
+        manager = new InMemoryTaskManager();
+    }
+
+    @Test
+    public void shouldNotPlaceTaskInsideLongTaskSharingStartWithZeroLengthOne() {
+        manager.createTask(new Task("Busy", "busy", TaskStatus.NEW, MONDAY.plusHours(1), Duration.ofHours(2)));
+        manager.createTask(new Task("Mark", "mark", TaskStatus.NEW, MONDAY.plusHours(1), Duration.ZERO));
+        Task task = new Task("Task", "task", TaskStatus.NEW);
+        manager.createTask(task);
+
+        TaskScheduler.Plan plan = new TaskScheduler(manager).from(MONDAY.plusMinutes(90))
+                .defaultDuration(Duration.ofMinutes(30)).plan();
+
+        assertEquals(MONDAY.plusHours(3), plan.placed().get(0).getStartTime(), "Task is placed inside the busy one");
+        assertEquals(MONDAY.plusHours(3), manager.findFreeSlot(MONDAY.plusMinutes(90), Duration.ofMinutes(30)),
+                "Free slot is inside the busy task");
+    }
+
+    @Test
+    public void shouldPlaceTasksIntoEarliestFittingGaps() {
+        manager.createTask(new Task("Busy", "busy", TaskStatus.NEW, MONDAY.plusMinutes(30), Duration.ofMinutes(60)));
+        manager.createTask(new Task("Busy", "busy", TaskStatus.NEW, MONDAY.plusMinutes(120), Duration.ofMinutes(60)));
+        Task longTask = new Task("Long", "long", TaskStatus.NEW);
+        longTask.setDuration(Duration.ofMinutes(45));
+        manager.createTask(longTask);
+        Task shortTask = new Task("Short", "short", TaskStatus.NEW);
+        manager.createTask(shortTask);
+
+        TaskScheduler.Plan plan = new TaskScheduler(manager).from(MONDAY).defaultDuration(Duration.ofMinutes(30)).plan();
+
+        assertEquals(2, plan.placed().size());
+        assertEquals(MONDAY.plusMinutes(180), plan.placed().get(0).getStartTime(), "Long task must skip small gaps");
+        assertEquals(MONDAY, plan.placed().get(1).getStartTime(), "Short task must fill the first gap");
+        assertNull(manager.getTaskById(shortTask.getId()).getStartTime(), "Plan must not change tasks before apply");
+    }
+
+    @Test
+    public void shouldRespectWorkingHoursAndPriority() {
+        Epic epic = new Epic("Epic", "epic");
+        manager.createEpic(epic);
+        Subtask low = new Subtask("Low", "low", TaskStatus.NEW, epic.getId());
+        Subtask high = new Subtask("High", "high", TaskStatus.IN_PROGRESS, epic.getId());
+        manager.createSubtask(low);
+        manager.createSubtask(high);
+        manager.createTask(new Task("Done", "done", TaskStatus.DONE));
+        Task tooLong = new Task("Too long", "long", TaskStatus.NEW);
+        tooLong.setDuration(Duration.ofHours(10));
+        manager.createTask(tooLong);
+
+        TaskScheduler.Plan plan = new TaskScheduler(manager)
+                .from(MONDAY.withHour(17).withMinute(45))
+                .defaultDuration(Duration.ofMinutes(30))
+                .workingHours(LocalTime.of(9, 0), LocalTime.of(18, 0))
+                .priority(Comparator.comparing(Task::getStatus).reversed())
+                .plan();
+
+        assertEquals(List.of(high.getId(), low.getId()), plan.placed().stream().map(Task::getId).toList());
+        assertEquals(MONDAY.plusDays(1), plan.placed().get(0).getStartTime(), "Task must move to the next working day");
+        assertEquals(MONDAY.plusDays(1).plusMinutes(30), plan.placed().get(1).getStartTime());
+        assertEquals(List.of(tooLong), plan.unplaced(), "Task longer than working day must stay unplaced");
+    }
+
+    @Test
+    public void shouldApplyPlanAsOneBatch() {
+        manager.createTask(new Task("Busy", "busy", TaskStatus.NEW, MONDAY.plusMinutes(20), Duration.ofMinutes(60)));
+        for (int i = 0; i < 100_000; i++) {
+            manager.createTask(new Task("Task " + i, "unscheduled", TaskStatus.NEW));
+        }
+
+        TaskScheduler.Plan plan = new TaskScheduler(manager).from(MONDAY).defaultDuration(Duration.ofMinutes(15)).plan();
+        manager.applyBatch(plan.toBatch());
+
+        assertEquals(100_001, manager.getPrioritizedTasks().size(), "Not all tasks are scheduled");
+        assertEquals(MONDAY.plusMinutes(80), manager.getPrioritizedTasks().get(2).getStartTime(),
+                "Gap before the busy task must be filled first");
+    }
+
+    @Test
+    public void shouldKeepEditsMadeBetweenPlanAndApply() {
+        Task task = new Task("Task", "task", TaskStatus.NEW);
+        manager.createTask(task);
+        TaskScheduler.Plan plan = new TaskScheduler(manager).from(MONDAY).defaultDuration(Duration.ofMinutes(15)).plan();
+
+        manager.updateTaskById(new Task(task.getId(), "Renamed", "edited", TaskStatus.IN_PROGRESS));
+        manager.applyBatch(plan.toBatch());
+
+        Task applied = manager.getTaskById(task.getId());
+        assertEquals("Renamed", applied.getTitle(), "Plan must not revert the title");
+        assertEquals(TaskStatus.IN_PROGRESS, applied.getStatus(), "Plan must not revert the status");
+        assertEquals(MONDAY, applied.getStartTime(), "Planned start time is not applied");
+    }
+
+    @Test
+    public void shouldRejectPlanWhenTaskWasDeletedAfterPlanning() {
+        Task first = new Task("First", "first", TaskStatus.NEW);
+        Task second = new Task("Second", "second", TaskStatus.NEW);
+        manager.createTask(first);
+        manager.createTask(second);
+        TaskScheduler.Plan plan = new TaskScheduler(manager).from(MONDAY).defaultDuration(Duration.ofMinutes(15)).plan();
+
+        manager.deleteTaskById(second.getId());
+
+        assertThrows(IllegalStateException.class, () -> manager.applyBatch(plan.toBatch()),
+                "Plan for a deleted task must be rejected");
+        assertNull(manager.getTaskById(first.getId()).getStartTime(), "Rejected plan must not be applied partially");
+    }
+
+    @Test
+    public void shouldRejectPlanWhenTaskWasScheduledAfterPlanning() {
+        Task task = new Task("Task", "task", TaskStatus.NEW);
+        manager.createTask(task);
+        TaskScheduler.Plan plan = new TaskScheduler(manager).from(MONDAY).defaultDuration(Duration.ofMinutes(15)).plan();
+
+        manager.updateTaskById(new Task(task.getId(), "Task", "task", TaskStatus.NEW, MONDAY.plusHours(5),
+                Duration.ofMinutes(30)));
+
+        assertThrows(IllegalStateException.class, () -> manager.applyBatch(plan.toBatch()),
+                "Plan must not override a time set after planning");
+        assertEquals(MONDAY.plusHours(5), manager.getTaskById(task.getId()).getStartTime(),
+                "Time set after planning is lost");
+    }
+}
@@ -0,0 +1,81 @@
+import manager.ManagerSaveException;
+import manager.WriteBehindLog;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindLogTest {
+
+    @Test
+    public void shouldGroupRecordsIntoFewerWrites() throws IOException {
+        Path file = Files.createTempFile("log", ".log");
+        WriteBehindLog log = new WriteBehindLog(file, 1000, WriteBehindLog.FsyncPolicy.EVERY_COMMIT);
+        for (int i = 0; i < 10_000; i++) {
+            log.append(i + "\n");
+        }
+        log.flush();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(10_000, lines.size(), "Records written before flush are missing");
+        assertEquals("9999", lines.get(9_999), "Records are reordered");
+        assertTrue(log.getCommitCount() < 10_000, "Records are not grouped: " + log.getCommitCount());
+    }
+
+    @Test
+    public void shouldReopenFileAfterCloseFile() throws IOException {
+        Path file = Files.createTempFile("log", ".log");
+        WriteBehindLog log = new WriteBehindLog(file, 10, WriteBehindLog.FsyncPolicy.every(Duration.ofMillis(10)));
+        log.append("first\n");
+        log.closeFile();
+        Path moved = file.resolveSibling(file.getFileName() + ".old");
+        Files.move(file, moved);
+        log.append("second\n");
+        log.flush();
+
+        assertEquals(List.of("first"), Files.readAllLines(moved));
+        assertEquals(List.of("second"), Files.readAllLines(file), "Closed file is not reopened");
+    }
+
+    @Test
+    public void closeShouldStopWriterThread() throws IOException {
+        Path file = Files.createTempFile("log", ".log");
+        WriteBehindLog log = new WriteBehindLog(file, 10, WriteBehindLog.FsyncPolicy.every(Duration.ofSeconds(1)));
+        log.append("first\n");
+        log.close();
+
+        assertFalse(hasWriterThread(file), "Writer thread is still running after close");
+        assertEquals(List.of("first"), Files.readAllLines(file), "Record is lost on close");
+
+        log.append("second\n");
+        log.close();
+        assertEquals(List.of("first", "second"), Files.readAllLines(file), "Log is not reusable after close");
+        assertFalse(hasWriterThread(file), "Restarted writer thread is still running after close");
+    }
+
+    private static boolean hasWriterThread(Path file) {
+        String name = "write-behind-" + file.getFileName();
+        return Thread.getAllStackTraces().keySet().stream().anyMatch(thread -> thread.getName().equals(name));
+    }
+
+    @Test
+    public void fsyncPolicyShouldRejectNegativeInterval() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new WriteBehindLog.FsyncPolicy(Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> WriteBehindLog.FsyncPolicy.every(Duration.ZERO));
+    }
+
+    @Test
+    public void shouldReportWriteFailureOnFlush() throws IOException {
+        Path directory = Files.createTempDirectory("log");
+        WriteBehindLog log = new WriteBehindLog(directory, 10, WriteBehindLog.FsyncPolicy.NEVER);
+        log.append("record\n");
+        assertThrows(ManagerSaveException.class, log::flush, "Failed write is not reported");
+        assertThrows(ManagerSaveException.class, () -> log.append("next\n"));
+    }
+}